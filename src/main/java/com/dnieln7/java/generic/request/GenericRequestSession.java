@@ -2,20 +2,25 @@ package com.dnieln7.java.generic.request;
 
 import com.dnieln7.java.generic.request.exception.BuilderException;
 import com.dnieln7.java.generic.request.exception.ResponseException;
+import com.dnieln7.java.generic.request.utils.BufferPool;
+import com.dnieln7.java.generic.request.utils.JsonProjection;
+import com.dnieln7.java.generic.request.utils.PooledReader;
+import com.dnieln7.java.generic.request.utils.PooledWriter;
 import com.dnieln7.java.generic.request.utils.RequestMethod;
 import com.google.gson.Gson;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
+import java.io.*;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.ProtocolException;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -37,6 +42,8 @@ public class GenericRequestSession {
         private Integer responseCode;
         private Boolean doOutput;
         private Map<String, String> requestProperties;
+        private Integer errorBodyLimit;
+        private Consumer<IOException> connectionErrorListener;
 
         /**
          * Creates a new instance of {@link Builder} with the default configuration.
@@ -44,6 +51,7 @@ public class GenericRequestSession {
          *     <li>{@link RequestMethod} -> GET</li>
          *     <li>Response Code -> 200</li>
          *     <li>Do Output -> false</li>
+         *     <li>Error body limit -> 64 KiB</li>
          *     <li>Request properties -> <br> {"Content-Type" : "application/json", "Accept" : "application/json"}</li>
          * </ul>
          */
@@ -52,6 +60,7 @@ public class GenericRequestSession {
             this.requestMethod = RequestMethod.GET;
             this.responseCode = 200;
             this.doOutput = false;
+            this.errorBodyLimit = DEFAULT_ERROR_BODY_LIMIT;
             this.requestProperties = new HashMap<>();
             this.requestProperties.put("Content-Type", "application/json");
             this.requestProperties.put("Accept", "application/json");
@@ -119,6 +128,32 @@ public class GenericRequestSession {
             return this;
         }
 
+        /**
+         * Sets the maximum number of bytes of the error body kept by the {@link ResponseException},
+         * the rest of the body is discarded. Defaults to 64 KiB.
+         *
+         * @param errorBodyLimit Maximum size of the error body in bytes.
+         * @return The current {@link Builder} instance.
+         */
+        public Builder withErrorBodyLimit(Integer errorBodyLimit) {
+            this.errorBodyLimit = errorBodyLimit != null && errorBodyLimit >= 0 ? errorBodyLimit : DEFAULT_ERROR_BODY_LIMIT;
+
+            return this;
+        }
+
+        /**
+         * Sets a listener notified when the connection fails, the send methods log these errors
+         * and return null or an empty list, which can not be told apart from an empty response.
+         *
+         * @param connectionErrorListener Listener of the connection errors.
+         * @return The current {@link Builder} instance.
+         */
+        Builder withConnectionErrorListener(Consumer<IOException> connectionErrorListener) {
+            this.connectionErrorListener = connectionErrorListener;
+
+            return this;
+        }
+
         /**
          * Creates a new instance of {@link GenericRequestSession} using the current configuration.
          *
@@ -140,12 +175,18 @@ public class GenericRequestSession {
                         (HttpURLConnection) urlObject.openConnection(),
                         this.responseCode,
                         this.doOutput,
-                        this.requestProperties
+                        this.requestProperties,
+                        this.errorBodyLimit,
+                        this.connectionErrorListener
                 );
 
                 genericRequestSession.setRequestMethod(this.requestMethod);
 
             } catch (IOException e) {
+                if (this.connectionErrorListener != null) {
+                    this.connectionErrorListener.accept(e);
+                }
+
                 Logger.getLogger(Builder.class.getName()).log(Level.SEVERE, "There was an error", e);
             }
 
@@ -153,14 +194,23 @@ public class GenericRequestSession {
         }
     }
 
+    static final int DEFAULT_ERROR_BODY_LIMIT = 64 * 1024;
+    private static final Gson GSON = new Gson();
+
     private final HttpURLConnection connection;
     private final Integer responseCode;
+    private final int errorBodyLimit;
+    private final Consumer<IOException> connectionErrorListener;
 
-    private GenericRequestSession(HttpURLConnection connection, Integer responseCode, Boolean doOutput, Map<String, String> properties) {
+    private GenericRequestSession(HttpURLConnection connection, Integer responseCode, Boolean doOutput,
+                                  Map<String, String> properties, int errorBodyLimit,
+                                  Consumer<IOException> connectionErrorListener) {
         this.connection = connection;
         this.connection.setDoOutput(doOutput);
         properties.forEach((key, value) -> this.connection.setRequestProperty(key, value));
         this.responseCode = responseCode;
+        this.errorBodyLimit = errorBodyLimit;
+        this.connectionErrorListener = connectionErrorListener;
     }
 
     private void setRequestMethod(RequestMethod requestMethod) {
@@ -175,32 +225,111 @@ public class GenericRequestSession {
         Logger.getLogger(GenericRequestSession.class.getName()).log(Level.SEVERE, "There was an error", error);
     }
 
+    private void logConnectionError(IOException error) {
+        if (connectionErrorListener != null) {
+            connectionErrorListener.accept(error);
+        }
+
+        logError(error);
+    }
+
+    private static Map<String, List<String>> headersOf(HttpURLConnection connection) {
+        Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+        connection.getHeaderFields().forEach((key, values) -> {
+            if (key != null) {
+                headers.put(key, values);
+            }
+        });
+
+        return headers;
+    }
+
+    private static byte[] readAtMost(InputStream input, int limit) throws IOException {
+        ByteBuffer buffer = BufferPool.shared().acquire();
+
+        try {
+            byte[] chunk = buffer.array();
+            ByteArrayOutputStream overflow = null;
+            int filled = 0;
+            int remaining = limit;
+            int read;
+
+            while (remaining > 0 && (read = input.read(chunk, filled, Math.min(chunk.length - filled, remaining))) != -1) {
+                filled += read;
+                remaining -= read;
+
+                if (filled == chunk.length) {
+                    overflow = overflow != null ? overflow : new ByteArrayOutputStream();
+                    overflow.write(chunk, 0, filled);
+                    filled = 0;
+                }
+            }
+
+            if (overflow == null) {
+                return Arrays.copyOf(chunk, filled);
+            }
+
+            overflow.write(chunk, 0, filled);
+
+            return overflow.toByteArray();
+        } finally {
+            BufferPool.shared().release(buffer);
+        }
+    }
+
+    /**
+     * Creates a {@link ResponseException} with the status code, headers and the first bytes of the error body
+     * of the connection, the body is not parsed.
+     *
+     * @param connection     A connection whose response code is not the expected one.
+     * @param errorBodyLimit Maximum number of bytes of the error body to keep.
+     * @return A new instance of {@link ResponseException}.
+     * @throws IOException If theres an error reading the response.
+     */
+    static ResponseException responseError(HttpURLConnection connection, int errorBodyLimit) throws IOException {
+        int code = connection.getResponseCode();
+        InputStream errorStream = connection.getErrorStream();
+        byte[] errorBody = new byte[0];
+
+        if (errorStream != null) {
+            try (InputStream input = errorStream) {
+                errorBody = readAtMost(input, errorBodyLimit);
+            }
+        }
+
+        return new ResponseException(
+                "Failed: Http error code: " + code,
+                code,
+                Collections.unmodifiableMap(headersOf(connection)),
+                errorBody
+        );
+    }
+
     /**
      * Sends a basic request using the configuration of the actual {@link GenericRequestSession} instance.
+     * <br/> <br/> The response is decoded while it is read, the fields missing from the type are skipped
+     * without being parsed. Use a slim type containing only the required fields to project large responses.
      *
      * @param typeClass Type to cast the response data.
      * @return The response data casted to the configured type.
      * @throws ResponseException If theres an error with the request.
      */
     public <T> T sendRequest(Class<T> typeClass) throws ResponseException {
-        BufferedReader response;
-
         try {
             if (connection.getResponseCode() != responseCode) {
-
-                response = new BufferedReader(new InputStreamReader(connection.getErrorStream()));
-
-                throw new ResponseException(
-                        "Failed: Http error code: " + connection.getResponseCode(),
-                        new JsonParser().parse(response.readLine()).getAsJsonObject()
-                );
+                throw responseError(connection, errorBodyLimit);
             }
 
-            response = new BufferedReader(new InputStreamReader(connection.getInputStream()));
+            PooledReader response = new PooledReader(connection.getInputStream());
 
-            return new Gson().fromJson(response.readLine(), typeClass);
+            try {
+                return GSON.fromJson(response, typeClass);
+            } finally {
+                response.release();
+            }
         } catch (IOException e) {
-            logError(e);
+            logConnectionError(e);
             return null;
         } finally {
             connection.disconnect();
@@ -215,30 +344,116 @@ public class GenericRequestSession {
      * @throws ResponseException If theres an error with the request.
      */
     public <T> List<T> sendRequestExpectingList(Class<T[]> typeClass) throws ResponseException {
-        BufferedReader response;
-
         try {
             if (connection.getResponseCode() != responseCode) {
+                throw responseError(connection, errorBodyLimit);
+            }
 
-                response = new BufferedReader(new InputStreamReader(connection.getErrorStream()));
+            PooledReader response = new PooledReader(connection.getInputStream());
 
-                throw new ResponseException(
-                        "Failed: Http error code: " + connection.getResponseCode(),
-                        new JsonParser().parse(response.readLine()).getAsJsonObject()
-                );
+            try {
+                return Arrays.asList(GSON.fromJson(response, typeClass));
+            } finally {
+                response.release();
             }
+        } catch (IOException e) {
+            logConnectionError(e);
+            return new ArrayList<>();
+        } finally {
+            connection.disconnect();
+        }
+    }
 
-            response = new BufferedReader(new InputStreamReader(connection.getInputStream()));
+    /**
+     * Sends a basic request using the configuration of the actual {@link GenericRequestSession} instance,
+     * only the paths of the {@link JsonProjection} are parsed, every other value of the response is skipped.
+     *
+     * @param typeClass  Type to cast the projected data, {@link JsonObject} can be used to get the projected tree.
+     * @param projection A {@link JsonProjection} with the paths to keep.
+     * @return The projected data casted to the configured type.
+     * @throws ResponseException If theres an error with the request.
+     */
+    public <T> T sendRequestWithProjection(Class<T> typeClass, JsonProjection projection) throws ResponseException {
+        try {
+            if (connection.getResponseCode() != responseCode) {
+                throw responseError(connection, errorBodyLimit);
+            }
 
-            return Arrays.asList(new Gson().fromJson(response.readLine(), typeClass));
+            PooledReader response = new PooledReader(connection.getInputStream());
+
+            try {
+                return GSON.fromJson(projection.read(new JsonReader(response)), typeClass);
+            } finally {
+                response.release();
+            }
         } catch (IOException e) {
-            logError(e);
-            return new ArrayList<>();
+            logConnectionError(e);
+            return null;
         } finally {
             connection.disconnect();
         }
     }
 
+    /**
+     * Sends a basic request using the configuration of the actual {@link GenericRequestSession} instance
+     * without casting the response data.
+     *
+     * @param responseHeaders A {@link Map} to fill with the headers of the response.
+     * @return The response data as a {@link JsonElement} tree.
+     * @throws ResponseException If theres an error with the request.
+     * @throws IOException       If theres an error with the connection, it is thrown instead of logged
+     *                           so the caller can report it.
+     */
+    JsonElement sendRequestExpectingTree(Map<String, List<String>> responseHeaders)
+            throws ResponseException, IOException {
+        try {
+            if (connection.getResponseCode() != responseCode) {
+                throw responseError(connection, errorBodyLimit);
+            }
+
+            responseHeaders.putAll(headersOf(connection));
+
+            PooledReader response = new PooledReader(connection.getInputStream());
+
+            try {
+                return JsonParser.parseReader(response);
+            } finally {
+                response.release();
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Sends a basic request using the configuration of the actual {@link GenericRequestSession} instance,
+     * the response is read as newline-delimited JSON or as Server-Sent Events when the server
+     * answers with the text/event-stream content type.
+     * <br/> <br/> The connection stays open until the returned {@link ResponseStream} is consumed or closed.
+     *
+     * @param typeClass Type to cast each record of the response.
+     * @return A {@link ResponseStream} with the records of the response.
+     * @throws ResponseException If theres an error with the request.
+     */
+    public <T> ResponseStream<T> sendRequestExpectingStream(Class<T> typeClass) throws ResponseException {
+        try {
+            if (connection.getResponseCode() != responseCode) {
+                throw responseError(connection, errorBodyLimit);
+            }
+
+            PooledReader response = new PooledReader(connection.getInputStream());
+
+            return new ResponseStream<>(connection, response, typeClass);
+        } catch (IOException e) {
+            logConnectionError(e);
+            connection.disconnect();
+            return null;
+        } catch (ResponseException e) {
+            connection.disconnect();
+            throw e;
+        }
+    }
+
     /**
      * Sends a request with a body using the configuration of the actual {@link GenericRequestSession} instance.
      *
@@ -248,30 +463,24 @@ public class GenericRequestSession {
      * @throws ResponseException If theres an error with the request.
      */
     public <T> T sendRequestWithBody(Class<T> typeClass, Object body) throws ResponseException {
-        BufferedReader response;
-
         try {
-            String jsonInput = new Gson().toJson(body);
-            OutputStream output = connection.getOutputStream();
-
-            output.write(jsonInput.getBytes());
-            output.flush();
+            try (Writer output = new PooledWriter(connection.getOutputStream())) {
+                GSON.toJson(body, output);
+            }
 
             if (connection.getResponseCode() != responseCode) {
-
-                response = new BufferedReader(new InputStreamReader(connection.getErrorStream()));
-
-                throw new ResponseException(
-                        "Failed: Http error code: " + connection.getResponseCode(),
-                        new JsonParser().parse(response.readLine()).getAsJsonObject()
-                );
+                throw responseError(connection, errorBodyLimit);
             }
 
-            response = new BufferedReader(new InputStreamReader(connection.getInputStream()));
+            PooledReader response = new PooledReader(connection.getInputStream());
 
-            return new Gson().fromJson(response.readLine(), typeClass);
+            try {
+                return GSON.fromJson(response, typeClass);
+            } finally {
+                response.release();
+            }
         } catch (IOException e) {
-            logError(e);
+            logConnectionError(e);
             return null;
         } finally {
             connection.disconnect();
@@ -287,30 +496,24 @@ public class GenericRequestSession {
      * @throws ResponseException If theres an error with the request.
      */
     public <T> T sendRequestWithBody(Class<T> typeClass, JsonObject body) throws ResponseException {
-        BufferedReader response;
-
         try {
-            String jsonInput = body.toString();
-            OutputStream output = connection.getOutputStream();
-
-            output.write(jsonInput.getBytes());
-            output.flush();
+            try (Writer output = new PooledWriter(connection.getOutputStream())) {
+                GSON.toJson(body, output);
+            }
 
             if (connection.getResponseCode() != responseCode) {
-
-                response = new BufferedReader(new InputStreamReader(connection.getErrorStream()));
-
-                throw new ResponseException(
-                        "Failed: Http error code: " + connection.getResponseCode(),
-                        new JsonParser().parse(response.readLine()).getAsJsonObject()
-                );
+                throw responseError(connection, errorBodyLimit);
             }
 
-            response = new BufferedReader(new InputStreamReader(connection.getInputStream()));
+            PooledReader response = new PooledReader(connection.getInputStream());
 
-            return new Gson().fromJson(response.readLine(), typeClass);
+            try {
+                return GSON.fromJson(response, typeClass);
+            } finally {
+                response.release();
+            }
         } catch (IOException e) {
-            logError(e);
+            logConnectionError(e);
             return null;
         } finally {
             connection.disconnect();
@@ -326,29 +529,68 @@ public class GenericRequestSession {
      * @throws ResponseException If theres an error with the request.
      */
     public <T> T sendRequestWithBody(Class<T> typeClass, String body) throws ResponseException {
-        BufferedReader response;
-
         try {
-            OutputStream output = connection.getOutputStream();
-
-            output.write(body.getBytes());
-            output.flush();
+            try (Writer output = new PooledWriter(connection.getOutputStream())) {
+                output.write(body);
+            }
 
             if (connection.getResponseCode() != responseCode) {
+                throw responseError(connection, errorBodyLimit);
+            }
 
-                response = new BufferedReader(new InputStreamReader(connection.getErrorStream()));
+            PooledReader response = new PooledReader(connection.getInputStream());
 
-                throw new ResponseException(
-                        "Failed: Http error code: " + connection.getResponseCode(),
-                        new JsonParser().parse(response.readLine()).getAsJsonObject()
-                );
+            try {
+                return GSON.fromJson(response, typeClass);
+            } finally {
+                response.release();
             }
+        } catch (IOException e) {
+            logConnectionError(e);
+            return null;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Sends a request with a multipart/form-data body using the configuration of the actual
+     * {@link GenericRequestSession} instance.
+     * <br/> <br/> The parts are streamed to the connection, with a fixed length when the size
+     * of every part is known or in chunks otherwise.
+     *
+     * @param typeClass Type to cast the response data.
+     * @param body      A {@link MultipartBody} instance to send as the body.
+     * @return The response data casted to the supplied type.
+     * @throws ResponseException If theres an error with the request.
+     */
+    public <T> T sendRequestWithBody(Class<T> typeClass, MultipartBody body) throws ResponseException {
+        try {
+            connection.setRequestProperty("Content-Type", body.getContentType());
 
-            response = new BufferedReader(new InputStreamReader(connection.getInputStream()));
+            if (body.getContentLength() >= 0) {
+                connection.setFixedLengthStreamingMode(body.getContentLength());
+            } else {
+                connection.setChunkedStreamingMode(0);
+            }
 
-            return new Gson().fromJson(response.readLine(), typeClass);
+            try (OutputStream output = connection.getOutputStream()) {
+                body.writeTo(output);
+            }
+
+            if (connection.getResponseCode() != responseCode) {
+                throw responseError(connection, errorBodyLimit);
+            }
+
+            PooledReader response = new PooledReader(connection.getInputStream());
+
+            try {
+                return GSON.fromJson(response, typeClass);
+            } finally {
+                response.release();
+            }
         } catch (IOException e) {
-            logError(e);
+            logConnectionError(e);
             return null;
         } finally {
             connection.disconnect();
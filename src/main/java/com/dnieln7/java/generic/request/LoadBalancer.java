@@ -0,0 +1,432 @@
+package com.dnieln7.java.generic.request;
+
+import com.dnieln7.java.generic.request.exception.BuilderException;
+import com.dnieln7.java.generic.request.exception.ResponseException;
+import com.dnieln7.java.generic.request.utils.BalancingStrategy;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Spreads requests across multiple base urls of the same service.
+ * <br/> <br/> Each request is sent to the endpoint picked by the configured {@link BalancingStrategy}.
+ * Endpoints that fail several requests in a row are ejected and receive no requests until the ejection time
+ * elapses. If every endpoint is ejected the requests are spread across all of them.
+ *
+ * @author dnieln7
+ */
+public class LoadBalancer {
+
+    /**
+     * Builder to create new instances of {@link LoadBalancer}
+     *
+     * @author dnieln7
+     */
+    public static class Builder {
+        private List<String> urls;
+        private BalancingStrategy strategy;
+        private Integer failureThreshold;
+        private Duration ejectionTime;
+        private Map<String, String> requestProperties;
+
+        /**
+         * Creates a new instance of {@link Builder} with the default configuration.
+         * <ul>
+         *     <li>{@link BalancingStrategy} -> LEAST_OUTSTANDING_REQUESTS</li>
+         *     <li>Failure threshold -> 5</li>
+         *     <li>Ejection time -> 30 seconds</li>
+         *     <li>Request properties -> <br> {"Content-Type" : "application/json", "Accept" : "application/json"}</li>
+         * </ul>
+         *
+         * @param urls Base urls of the endpoints.
+         */
+        public Builder(List<String> urls) {
+            this.urls = urls;
+            this.strategy = BalancingStrategy.LEAST_OUTSTANDING_REQUESTS;
+            this.failureThreshold = 5;
+            this.ejectionTime = Duration.ofSeconds(30);
+            this.requestProperties = new HashMap<>();
+            this.requestProperties.put("Content-Type", "application/json");
+            this.requestProperties.put("Accept", "application/json");
+        }
+
+        /**
+         * Configure the base urls of the endpoints.
+         *
+         * @param urls Valid base urls.
+         * @return The current {@link Builder} instance.
+         */
+        public Builder to(List<String> urls) {
+            this.urls = urls;
+
+            return this;
+        }
+
+        /**
+         * Sets the strategy to pick the endpoint of each request.
+         *
+         * @param strategy A {@link BalancingStrategy} item.
+         * @return The current {@link Builder} instance.
+         */
+        public Builder withStrategy(BalancingStrategy strategy) {
+            this.strategy = strategy != null ? strategy : BalancingStrategy.LEAST_OUTSTANDING_REQUESTS;
+
+            return this;
+        }
+
+        /**
+         * Sets the number of consecutive failures that ejects an endpoint, defaults to 5.
+         *
+         * @param failureThreshold Number of consecutive failures.
+         * @return The current {@link Builder} instance.
+         */
+        public Builder withFailureThreshold(Integer failureThreshold) {
+            this.failureThreshold = failureThreshold != null && failureThreshold > 0 ? failureThreshold : 5;
+
+            return this;
+        }
+
+        /**
+         * Sets how long an ejected endpoint receives no requests, defaults to 30 seconds.
+         *
+         * @param ejectionTime Cool-down of the ejected endpoints.
+         * @return The current {@link Builder} instance.
+         */
+        public Builder withEjectionTime(Duration ejectionTime) {
+            this.ejectionTime = ejectionTime != null ? ejectionTime : Duration.ofSeconds(30);
+
+            return this;
+        }
+
+        /**
+         * Sets the request properties of the sessions created by the {@link LoadBalancer}.
+         *
+         * @param requestProperties A {@link Map} containing the key - value, properties.
+         * @return The current {@link Builder} instance.
+         */
+        public Builder withRequestProperties(Map<String, String> requestProperties) {
+            this.requestProperties = requestProperties;
+
+            return this;
+        }
+
+        /**
+         * Creates a new instance of {@link LoadBalancer} using the current configuration.
+         *
+         * @return A new instance of {@link LoadBalancer}.
+         * @throws BuilderException If there´s an error in the process.
+         */
+        public LoadBalancer build() throws BuilderException {
+            if (this.urls == null || this.urls.isEmpty()) {
+                throw new BuilderException("At least one url is required");
+            }
+
+            List<Endpoint> endpoints = new ArrayList<>();
+
+            for (String url : this.urls) {
+                try {
+                    new URL(url);
+                } catch (MalformedURLException e) {
+                    throw new BuilderException("There is a problem with the provided url: " + url);
+                }
+
+                endpoints.add(new Endpoint(url.endsWith("/") ? url.substring(0, url.length() - 1) : url));
+            }
+
+            return new LoadBalancer(
+                    endpoints,
+                    this.strategy,
+                    this.failureThreshold,
+                    this.ejectionTime.toNanos(),
+                    this.requestProperties
+            );
+        }
+    }
+
+    /**
+     * A request to send to the endpoint picked by the {@link LoadBalancer}.
+     *
+     * @author dnieln7
+     */
+    @FunctionalInterface
+    public interface Call<T> {
+        /**
+         * Builds and sends the request.
+         *
+         * @param builder A {@link GenericRequestSession.Builder} pointing to the picked endpoint.
+         * @return The response data.
+         * @throws BuilderException  If there´s an error building the session.
+         * @throws ResponseException If theres an error with the request.
+         */
+        T send(GenericRequestSession.Builder builder) throws BuilderException, ResponseException;
+    }
+
+    /**
+     * Statistics of an endpoint at the moment they were requested.
+     *
+     * @author dnieln7
+     */
+    public static class EndpointStats {
+        private final String url;
+        private final int outstandingRequests;
+        private final double averageLatency;
+        private final long successes;
+        private final long failures;
+        private final boolean ejected;
+
+        private EndpointStats(String url, int outstandingRequests, double averageLatency,
+                              long successes, long failures, boolean ejected) {
+            this.url = url;
+            this.outstandingRequests = outstandingRequests;
+            this.averageLatency = averageLatency;
+            this.successes = successes;
+            this.failures = failures;
+            this.ejected = ejected;
+        }
+
+        /**
+         * @return Base url of the endpoint.
+         */
+        public String getUrl() {
+            return url;
+        }
+
+        /**
+         * @return Number of requests in flight.
+         */
+        public int getOutstandingRequests() {
+            return outstandingRequests;
+        }
+
+        /**
+         * @return Exponentially weighted average of the latency of the successful requests in milliseconds.
+         */
+        public double getAverageLatency() {
+            return averageLatency;
+        }
+
+        /**
+         * @return Number of successful requests.
+         */
+        public long getSuccesses() {
+            return successes;
+        }
+
+        /**
+         * @return Number of failed requests.
+         */
+        public long getFailures() {
+            return failures;
+        }
+
+        /**
+         * @return Whether the endpoint is ejected.
+         */
+        public boolean isEjected() {
+            return ejected;
+        }
+
+        @Override
+        public String toString() {
+            return "EndpointStats{" +
+                    "url='" + url + '\'' +
+                    ", outstandingRequests=" + outstandingRequests +
+                    ", averageLatency=" + averageLatency +
+                    ", successes=" + successes +
+                    ", failures=" + failures +
+                    ", ejected=" + ejected +
+                    '}';
+        }
+    }
+
+    private static class Endpoint {
+        private static final double LATENCY_WEIGHT = 0.3;
+
+        private final String url;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final AtomicLong successes = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private double latency;
+        private int consecutiveFailures;
+        private long ejectedUntil;
+        private boolean ejected;
+
+        private Endpoint(String url) {
+            this.url = url;
+        }
+
+        private synchronized boolean isAvailable(long now) {
+            return !ejected || now - ejectedUntil >= 0;
+        }
+
+        private synchronized double latency() {
+            return latency;
+        }
+
+        private synchronized void onSuccess(long elapsed) {
+            successes.incrementAndGet();
+            consecutiveFailures = 0;
+            ejected = false;
+            recordLatency(elapsed);
+        }
+
+        private synchronized void onFailure(int threshold, long ejectionTime) {
+            failures.incrementAndGet();
+
+            if (++consecutiveFailures >= threshold) {
+                consecutiveFailures = 0;
+                ejected = true;
+                ejectedUntil = System.nanoTime() + ejectionTime;
+            }
+        }
+
+        private void recordLatency(long elapsed) {
+            double millis = elapsed / 1_000_000.0;
+
+            latency = latency == 0 ? millis : latency + LATENCY_WEIGHT * (millis - latency);
+        }
+
+        private synchronized EndpointStats stats(long now) {
+            return new EndpointStats(
+                    url,
+                    outstanding.get(),
+                    latency,
+                    successes.get(),
+                    failures.get(),
+                    ejected && now - ejectedUntil < 0
+            );
+        }
+    }
+
+    private final List<Endpoint> endpoints;
+    private final BalancingStrategy strategy;
+    private final int failureThreshold;
+    private final long ejectionTime;
+    private final Map<String, String> properties;
+
+    private LoadBalancer(List<Endpoint> endpoints, BalancingStrategy strategy, int failureThreshold,
+                         long ejectionTime, Map<String, String> properties) {
+        this.endpoints = endpoints;
+        this.strategy = strategy;
+        this.failureThreshold = failureThreshold;
+        this.ejectionTime = ejectionTime;
+        this.properties = properties;
+    }
+
+    /**
+     * Sends a request to the endpoint picked by the configured {@link BalancingStrategy}.
+     * <br/> <br/> The request counts as failed if the connection to the endpoint fails, or if it throws a
+     * {@link ResponseException} with a 5xx or 429 status code. Empty responses count as successful and
+     * errors building the session are not attributed to the endpoint.
+     *
+     * @param path Path appended to the base url of the picked endpoint.
+     * @param call The request to send with the session builder of the picked endpoint.
+     * @return The response data returned by the call.
+     * @throws BuilderException  If there´s an error building the session.
+     * @throws ResponseException If theres an error with the request.
+     */
+    public <T> T send(String path, Call<T> call) throws BuilderException, ResponseException {
+        Endpoint endpoint = pick();
+        AtomicBoolean connectionFailed = new AtomicBoolean();
+        GenericRequestSession.Builder builder = new GenericRequestSession.Builder(endpoint.url + path)
+                .withRequestProperties(properties)
+                .withConnectionErrorListener(error -> connectionFailed.set(true));
+        Boolean success = Boolean.FALSE;
+        long start = System.nanoTime();
+
+        endpoint.outstanding.incrementAndGet();
+
+        try {
+            T result = call.send(builder);
+
+            success = !connectionFailed.get();
+
+            return result;
+        } catch (BuilderException e) {
+            success = null;
+
+            throw e;
+        } catch (ResponseException e) {
+            success = !connectionFailed.get()
+                    && e.getStatusCode() > 0 && e.getStatusCode() < 500 && e.getStatusCode() != 429;
+
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+
+            endpoint.outstanding.decrementAndGet();
+
+            if (Boolean.TRUE.equals(success)) {
+                endpoint.onSuccess(elapsed);
+            } else if (success != null) {
+                endpoint.onFailure(failureThreshold, ejectionTime);
+            }
+        }
+    }
+
+    /**
+     * @return The statistics of every endpoint.
+     */
+    public List<EndpointStats> getStats() {
+        long now = System.nanoTime();
+        List<EndpointStats> stats = new ArrayList<>();
+
+        endpoints.forEach(endpoint -> stats.add(endpoint.stats(now)));
+
+        return stats;
+    }
+
+    private Endpoint pick() {
+        long now = System.nanoTime();
+        List<Endpoint> available = new ArrayList<>(endpoints.size());
+
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.isAvailable(now)) {
+                available.add(endpoint);
+            }
+        }
+
+        if (available.isEmpty()) {
+            available = endpoints;
+        }
+
+        if (available.size() == 1) {
+            return available.get(0);
+        }
+
+        if (strategy == BalancingStrategy.POWER_OF_TWO_CHOICES) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int first = random.nextInt(available.size());
+            int second = random.nextInt(available.size() - 1);
+            Endpoint a = available.get(first);
+            Endpoint b = available.get(second >= first ? second + 1 : second);
+
+            return cost(a) <= cost(b) ? a : b;
+        }
+
+        Endpoint best = null;
+
+        for (Endpoint endpoint : available) {
+            if (best == null
+                    || endpoint.outstanding.get() < best.outstanding.get()
+                    || endpoint.outstanding.get() == best.outstanding.get() && endpoint.latency() < best.latency()) {
+                best = endpoint;
+            }
+        }
+
+        return best;
+    }
+
+    private static double cost(Endpoint endpoint) {
+        return (endpoint.outstanding.get() + 1) * Math.max(endpoint.latency(), 1);
+    }
+}
@@ -0,0 +1,332 @@
+package com.dnieln7.java.generic.request;
+
+import com.dnieln7.java.generic.request.exception.BuilderException;
+import com.dnieln7.java.generic.request.utils.PooledWriter;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A multipart/form-data request body, the parts are streamed to the connection when the request is sent.
+ * <br/> <br/> JSON parts are serialized while they are written and file parts are copied through channels,
+ * the body is never buffered as a whole.
+ *
+ * @author dnieln7
+ */
+public class MultipartBody {
+
+    /**
+     * Builder to create new instances of {@link MultipartBody}
+     *
+     * @author dnieln7
+     */
+    public static class Builder {
+        private final List<Part> parts;
+
+        /**
+         * Creates a new instance of {@link Builder} without parts.
+         */
+        public Builder() {
+            this.parts = new ArrayList<>();
+        }
+
+        /**
+         * Adds a part containing an object serialized as JSON.
+         *
+         * @param name  Name of the form field.
+         * @param value An object to serialize.
+         * @return The current {@link Builder} instance.
+         */
+        public Builder addJsonPart(String name, Object value) {
+            this.parts.add(new JsonPart(name, value));
+
+            return this;
+        }
+
+        /**
+         * Adds a part containing a {@link JsonElement}.
+         *
+         * @param name  Name of the form field.
+         * @param value A {@link JsonElement} instance.
+         * @return The current {@link Builder} instance.
+         */
+        public Builder addJsonPart(String name, JsonElement value) {
+            this.parts.add(new JsonPart(name, value));
+
+            return this;
+        }
+
+        /**
+         * Adds a plain text part.
+         *
+         * @param name  Name of the form field.
+         * @param value Text of the field.
+         * @return The current {@link Builder} instance.
+         */
+        public Builder addTextPart(String name, String value) {
+            this.parts.add(new TextPart(name, value));
+
+            return this;
+        }
+
+        /**
+         * Adds a file part with the application/octet-stream content type.
+         *
+         * @param name Name of the form field.
+         * @param file Path of the file to upload.
+         * @return The current {@link Builder} instance.
+         */
+        public Builder addFilePart(String name, Path file) {
+            return addFilePart(name, file, "application/octet-stream");
+        }
+
+        /**
+         * Adds a file part.
+         *
+         * @param name        Name of the form field.
+         * @param file        Path of the file to upload.
+         * @param contentType Content type of the file.
+         * @return The current {@link Builder} instance.
+         */
+        public Builder addFilePart(String name, Path file, String contentType) {
+            this.parts.add(new FilePart(name, file, contentType));
+
+            return this;
+        }
+
+        /**
+         * Creates a new instance of {@link MultipartBody} using the current parts.
+         *
+         * @return A new instance of {@link MultipartBody}.
+         * @throws BuilderException If a file part can not be read.
+         */
+        public MultipartBody build() throws BuilderException {
+            String boundary = "GenericRequestBoundary" + UUID.randomUUID().toString().replace("-", "");
+            long length = closing(boundary).length;
+
+            for (Part part : parts) {
+                part.prepare();
+
+                long partLength = part.length();
+
+                length = length >= 0 && partLength >= 0
+                        ? length + part.header(boundary).length + partLength + CRLF.length
+                        : -1;
+            }
+
+            return new MultipartBody(boundary, new ArrayList<>(parts), length);
+        }
+    }
+
+    private abstract static class Part {
+        private final String name;
+
+        private Part(String name) {
+            this.name = name;
+        }
+
+        void prepare() throws BuilderException {
+        }
+
+        String fileName() {
+            return null;
+        }
+
+        abstract String contentType();
+
+        /**
+         * @return The length of the content in bytes, -1 if unknown.
+         */
+        abstract long length();
+
+        abstract void writeContent(OutputStream output) throws IOException;
+
+        byte[] header(String boundary) {
+            StringBuilder header = new StringBuilder("--").append(boundary).append("\r\n")
+                    .append("Content-Disposition: form-data; name=\"").append(escape(name)).append('"');
+
+            if (fileName() != null) {
+                header.append("; filename=\"").append(escape(fileName())).append('"');
+            }
+
+            header.append("\r\nContent-Type: ").append(contentType()).append("\r\n\r\n");
+
+            return header.toString().getBytes(StandardCharsets.UTF_8);
+        }
+
+        private static String escape(String value) {
+            return value.replace("\"", "%22").replace("\r", "%0D").replace("\n", "%0A");
+        }
+    }
+
+    private static class JsonPart extends Part {
+        private final Object value;
+
+        private JsonPart(String name, Object value) {
+            super(name);
+            this.value = value;
+        }
+
+        @Override
+        String contentType() {
+            return "application/json; charset=UTF-8";
+        }
+
+        @Override
+        long length() {
+            return -1;
+        }
+
+        @Override
+        void writeContent(OutputStream output) throws IOException {
+            try (Writer writer = new PooledWriter(output)) {
+                if (value instanceof JsonElement) {
+                    GSON.toJson((JsonElement) value, writer);
+                } else {
+                    GSON.toJson(value, writer);
+                }
+            }
+        }
+    }
+
+    private static class TextPart extends Part {
+        private final byte[] value;
+
+        private TextPart(String name, String value) {
+            super(name);
+            this.value = value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        String contentType() {
+            return "text/plain; charset=UTF-8";
+        }
+
+        @Override
+        long length() {
+            return value.length;
+        }
+
+        @Override
+        void writeContent(OutputStream output) throws IOException {
+            output.write(value);
+        }
+    }
+
+    private static class FilePart extends Part {
+        private final Path file;
+        private final String contentType;
+        private long size;
+
+        private FilePart(String name, Path file, String contentType) {
+            super(name);
+            this.file = file;
+            this.contentType = contentType;
+        }
+
+        @Override
+        void prepare() throws BuilderException {
+            try {
+                size = Files.size(file);
+            } catch (IOException e) {
+                throw new BuilderException("There is a problem with the provided file: " + file);
+            }
+        }
+
+        @Override
+        String fileName() {
+            return file.getFileName().toString();
+        }
+
+        @Override
+        String contentType() {
+            return contentType;
+        }
+
+        @Override
+        long length() {
+            return size;
+        }
+
+        @Override
+        void writeContent(OutputStream output) throws IOException {
+            output.flush();
+
+            try (FileChannel channel = FileChannel.open(file)) {
+                WritableByteChannel target = Channels.newChannel(output);
+                long position = 0;
+
+                while (position < size) {
+                    long transferred = channel.transferTo(position, size - position, target);
+
+                    if (transferred <= 0) {
+                        throw new IOException("The file " + file + " changed its size while being sent");
+                    }
+
+                    position += transferred;
+                }
+            }
+        }
+    }
+
+    private static final Gson GSON = new Gson();
+    private static final byte[] CRLF = "\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final String boundary;
+    private final List<Part> parts;
+    private final long contentLength;
+
+    private MultipartBody(String boundary, List<Part> parts, long contentLength) {
+        this.boundary = boundary;
+        this.parts = parts;
+        this.contentLength = contentLength;
+    }
+
+    private static byte[] closing(String boundary) {
+        return ("--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * @return The value of the Content-Type header, including the boundary.
+     */
+    public String getContentType() {
+        return "multipart/form-data; boundary=" + boundary;
+    }
+
+    /**
+     * @return The length of the body in bytes, -1 if any part has an unknown length.
+     */
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * Writes every part to the supplied stream, the stream is flushed but not closed.
+     *
+     * @param output Destination of the body.
+     * @throws IOException If theres an error writing the body.
+     */
+    public void writeTo(OutputStream output) throws IOException {
+        OutputStream buffered = new BufferedOutputStream(output, BUFFER_SIZE);
+
+        for (Part part : parts) {
+            buffered.write(part.header(boundary));
+            part.writeContent(buffered);
+            buffered.write(CRLF);
+        }
+
+        buffered.write(closing(boundary));
+        buffered.flush();
+    }
+}
@@ -0,0 +1,434 @@
+package com.dnieln7.java.generic.request;
+
+import com.dnieln7.java.generic.request.exception.BuilderException;
+import com.dnieln7.java.generic.request.exception.PaginationException;
+import com.dnieln7.java.generic.request.exception.ResponseException;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Fetches every page of a list endpoint and exposes the items as a single lazy {@link Stream}.
+ * <br/> <br/> The pages are fetched in order on a background thread that keeps the next pages ready
+ * while the current one is consumed. The next page is found with a page number or offset query parameter,
+ * a cursor field of the response body or the {@code Link} header with {@code rel="next"}.
+ * <br/> <br/> The streams should be closed when they are not fully consumed to stop the background thread.
+ *
+ * @author dnieln7
+ */
+public class Paginator<T> {
+
+    /**
+     * Builder to create new instances of {@link Paginator}
+     *
+     * @author dnieln7
+     */
+    public static class Builder<T> {
+        private String url;
+        private final Class<T[]> typeClass;
+        private Map<String, String> requestProperties;
+        private Supplier<NextPage> nextPage;
+        private String itemsField;
+        private Integer prefetch;
+
+        /**
+         * Creates a new instance of {@link Builder} with the default configuration.
+         * <ul>
+         *     <li>Next page -> Link header</li>
+         *     <li>Items field -> The response body is the list</li>
+         *     <li>Prefetch -> 1</li>
+         *     <li>Request properties -> <br> {"Content-Type" : "application/json", "Accept" : "application/json"}</li>
+         * </ul>
+         *
+         * @param url       Url of the first page.
+         * @param typeClass Array type to cast the items of each page.
+         */
+        public Builder(String url, Class<T[]> typeClass) {
+            this.url = url;
+            this.typeClass = typeClass;
+            this.requestProperties = new HashMap<>();
+            this.requestProperties.put("Content-Type", "application/json");
+            this.requestProperties.put("Accept", "application/json");
+            this.nextPage = () -> Paginator::nextFromLinkHeader;
+            this.prefetch = 1;
+        }
+
+        /**
+         * Configure the url of the first page.
+         *
+         * @param url Valid url of the first page.
+         * @return The current {@link Builder} instance.
+         */
+        public Builder<T> to(String url) {
+            this.url = url;
+
+            return this;
+        }
+
+        /**
+         * Sets the request properties of every page request.
+         *
+         * @param requestProperties A {@link Map} containing the key - value, properties.
+         * @return The current {@link Builder} instance.
+         */
+        public Builder<T> withRequestProperties(Map<String, String> requestProperties) {
+            this.requestProperties = requestProperties;
+
+            return this;
+        }
+
+        /**
+         * Requests the pages incrementing a page number query parameter, the pagination ends on the first empty page.
+         *
+         * @param parameter Name of the query parameter.
+         * @param firstPage Number of the first page.
+         * @return The current {@link Builder} instance.
+         */
+        public Builder<T> byPage(String parameter, int firstPage) {
+            this.nextPage = () -> new NextPage() {
+                private int page = firstPage;
+
+                @Override
+                public String first(String url) {
+                    return withQueryParameter(url, parameter, String.valueOf(page));
+                }
+
+                @Override
+                public String next(String url, JsonElement body, Map<String, List<String>> headers, int items) {
+                    return items == 0 ? null : withQueryParameter(url, parameter, String.valueOf(++page));
+                }
+            };
+
+            return this;
+        }
+
+        /**
+         * Requests the pages incrementing an offset query parameter by the number of items received,
+         * the pagination ends on the first empty page.
+         *
+         * @param parameter Name of the query parameter.
+         * @return The current {@link Builder} instance.
+         */
+        public Builder<T> byOffset(String parameter) {
+            this.nextPage = () -> new NextPage() {
+                private long offset;
+
+                @Override
+                public String first(String url) {
+                    return withQueryParameter(url, parameter, String.valueOf(offset));
+                }
+
+                @Override
+                public String next(String url, JsonElement body, Map<String, List<String>> headers, int items) {
+                    offset += items;
+
+                    return items == 0 ? null : withQueryParameter(url, parameter, String.valueOf(offset));
+                }
+            };
+
+            return this;
+        }
+
+        /**
+         * Requests the pages sending the cursor found on the response body as a query parameter,
+         * the pagination ends when the cursor is missing or empty.
+         *
+         * @param cursorField Path of the cursor on the response body, nested fields are separated by dots.
+         * @param parameter   Name of the query parameter.
+         * @return The current {@link Builder} instance.
+         */
+        public Builder<T> byCursor(String cursorField, String parameter) {
+            this.nextPage = () -> (url, body, headers, items) -> {
+                JsonElement cursor = field(body, cursorField);
+
+                return cursor == null || cursor.isJsonNull() || cursor.getAsString().isEmpty()
+                        ? null
+                        : withQueryParameter(url, parameter, cursor.getAsString());
+            };
+
+            return this;
+        }
+
+        /**
+         * Requests the pages following the {@code Link} header with {@code rel="next"}, this is the default.
+         *
+         * @return The current {@link Builder} instance.
+         */
+        public Builder<T> byLinkHeader() {
+            this.nextPage = () -> Paginator::nextFromLinkHeader;
+
+            return this;
+        }
+
+        /**
+         * Sets the field of the response body containing the items, required when the body is an object.
+         *
+         * @param itemsField Path of the items on the response body, nested fields are separated by dots.
+         * @return The current {@link Builder} instance.
+         */
+        public Builder<T> withItemsField(String itemsField) {
+            this.itemsField = itemsField;
+
+            return this;
+        }
+
+        /**
+         * Sets how many pages are fetched ahead of the page being consumed, defaults to 1.
+         *
+         * @param prefetch Number of pages to keep ready.
+         * @return The current {@link Builder} instance.
+         */
+        public Builder<T> withPrefetch(Integer prefetch) {
+            this.prefetch = prefetch != null && prefetch > 0 ? prefetch : 1;
+
+            return this;
+        }
+
+        /**
+         * Creates a new instance of {@link Paginator} using the current configuration.
+         *
+         * @return A new instance of {@link Paginator}.
+         * @throws BuilderException If there´s an error in the process.
+         */
+        public Paginator<T> build() throws BuilderException {
+            try {
+                new URL(this.url);
+            } catch (MalformedURLException e) {
+                throw new BuilderException("There is a problem with the provided url: " + this.url);
+            }
+
+            return new Paginator<>(url, typeClass, requestProperties, nextPage, itemsField, prefetch);
+        }
+    }
+
+    private interface NextPage {
+        default String first(String url) {
+            return url;
+        }
+
+        /**
+         * @return The url of the next page, or null if there are no more pages.
+         */
+        String next(String url, JsonElement body, Map<String, List<String>> headers, int items);
+    }
+
+    private static final Object END = new Object();
+    private static final Gson GSON = new Gson();
+
+    private final String url;
+    private final Class<T[]> typeClass;
+    private final Map<String, String> properties;
+    private final Supplier<NextPage> nextPage;
+    private final String itemsField;
+    private final int prefetch;
+
+    private Paginator(String url, Class<T[]> typeClass, Map<String, String> properties,
+                      Supplier<NextPage> nextPage, String itemsField, int prefetch) {
+        this.url = url;
+        this.typeClass = typeClass;
+        this.properties = properties;
+        this.nextPage = nextPage;
+        this.itemsField = itemsField;
+        this.prefetch = prefetch;
+    }
+
+    /**
+     * Creates a new stream over the items of every page, the first page is requested when the
+     * first item is consumed. Errors fetching a page are thrown as {@link PaginationException}.
+     *
+     * @return A lazy {@link Stream} with the items of every page.
+     */
+    public Stream<T> stream() {
+        // The producer holds the last fetched page while it waits for room, so the queue keeps one page less
+        BlockingQueue<Object> pages = prefetch > 1 ? new ArrayBlockingQueue<>(prefetch - 1) : new SynchronousQueue<>();
+        NextPage next = nextPage.get();
+        Thread producer = new Thread(() -> fetchPages(pages, next), "generic-request-paginator");
+
+        producer.setDaemon(true);
+
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED) {
+            private Iterator<T> page = Collections.emptyIterator();
+            private boolean started;
+            private boolean finished;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                if (!started) {
+                    started = true;
+                    producer.start();
+                }
+
+                while (!page.hasNext()) {
+                    if (finished) {
+                        return false;
+                    }
+
+                    Object next = take(pages);
+
+                    if (next == END) {
+                        finished = true;
+                        return false;
+                    }
+
+                    if (next instanceof PaginationException) {
+                        finished = true;
+                        throw (PaginationException) next;
+                    }
+
+                    @SuppressWarnings("unchecked")
+                    List<T> items = (List<T>) next;
+
+                    page = items.iterator();
+                }
+
+                action.accept(page.next());
+
+                return true;
+            }
+        };
+
+        return StreamSupport.stream(spliterator, false).onClose(producer::interrupt);
+    }
+
+    private static Object take(BlockingQueue<Object> pages) {
+        try {
+            return pages.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaginationException("Interrupted while waiting for the next page", e);
+        }
+    }
+
+    private void fetchPages(BlockingQueue<Object> pages, NextPage nextPage) {
+        String pageUrl = nextPage.first(url);
+
+        try {
+            while (pageUrl != null && !Thread.currentThread().isInterrupted()) {
+                Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+                JsonElement body;
+
+                try {
+                    GenericRequestSession session = new GenericRequestSession.Builder(pageUrl)
+                            .withRequestProperties(properties)
+                            .build();
+
+                    if (session == null) {
+                        pages.put(new PaginationException("Failed: The connection to " + pageUrl + " could not be opened"));
+                        return;
+                    }
+
+                    body = session.sendRequestExpectingTree(headers);
+                } catch (BuilderException | ResponseException | IOException e) {
+                    pages.put(new PaginationException("Failed: The page " + pageUrl + " could not be fetched", e));
+                    return;
+                }
+
+                JsonElement items = itemsField != null ? field(body, itemsField) : body;
+
+                if (items == null || !items.isJsonArray()) {
+                    pages.put(new PaginationException("Failed: The page " + pageUrl + " does not contain a list of items"));
+                    return;
+                }
+
+                List<T> page = Arrays.asList(GSON.fromJson(items, typeClass));
+
+                pages.put(page);
+                pageUrl = nextPage.next(pageUrl, body, headers, page.size());
+            }
+
+            pages.put(END);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            fail(pages, new PaginationException("Failed: The page " + pageUrl + " could not be read", e));
+        }
+    }
+
+    /**
+     * Waits for room on the queue so the consumer always receives the error.
+     */
+    private static void fail(BlockingQueue<Object> pages, PaginationException error) {
+        try {
+            pages.put(error);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static JsonElement field(JsonElement body, String path) {
+        JsonElement current = body;
+
+        for (String name : path.split("\\.")) {
+            if (current == null || !current.isJsonObject()) {
+                return null;
+            }
+
+            current = current.getAsJsonObject().get(name);
+        }
+
+        return current;
+    }
+
+    static String nextFromLinkHeader(String url, JsonElement body, Map<String, List<String>> headers, int items) {
+        for (String header : headers.getOrDefault("Link", Collections.emptyList())) {
+            for (String link : header.split(",(?=\\s*<)")) {
+                String[] segments = link.split(";");
+                String target = segments[0].trim();
+
+                for (int i = 1; i < segments.length; i++) {
+                    String[] attribute = segments[i].trim().split("=", 2);
+
+                    if (attribute.length == 2
+                            && attribute[0].trim().equalsIgnoreCase("rel")
+                            && Arrays.asList(attribute[1].trim().replace("\"", "").split("\\s+")).contains("next")
+                            && target.startsWith("<") && target.endsWith(">")) {
+                        try {
+                            return new URL(new URL(url), target.substring(1, target.length() - 1)).toString();
+                        } catch (MalformedURLException e) {
+                            throw new PaginationException("Failed: Invalid next page url: " + target, e);
+                        }
+                    }
+                }
+            }
+        }
+
+        return null;
+    }
+
+    static String withQueryParameter(String url, String name, String value) {
+        int fragmentStart = url.indexOf('#');
+        String fragment = fragmentStart >= 0 ? url.substring(fragmentStart) : "";
+        String base = fragmentStart >= 0 ? url.substring(0, fragmentStart) : url;
+        int queryStart = base.indexOf('?');
+        StringBuilder result = new StringBuilder(queryStart >= 0 ? base.substring(0, queryStart) : base);
+        String separator = "?";
+
+        if (queryStart >= 0) {
+            for (String parameter : base.substring(queryStart + 1).split("&")) {
+                if (!parameter.isEmpty() && !parameter.split("=", 2)[0].equals(encode(name))) {
+                    result.append(separator).append(parameter);
+                    separator = "&";
+                }
+            }
+        }
+
+        return result.append(separator).append(encode(name)).append('=').append(encode(value)).append(fragment).toString();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,483 @@
+package com.dnieln7.java.generic.request;
+
+import com.dnieln7.java.generic.request.exception.BuilderException;
+import com.dnieln7.java.generic.request.exception.ResponseException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Downloads a resource splitting it into byte ranges that are fetched concurrently.
+ * <br/> <br/> The resource is probed with a HEAD request, if the server answers with
+ * {@code Accept-Ranges: bytes} and a {@code Content-Length} the resource is split into segments,
+ * each one is requested with a {@code Range} header and written at its position of the destination.
+ * Failed segments are retried from the last byte received, completed segments are never fetched again,
+ * client errors (4xx) are not retried. If ranges are not supported, or the server answers a ranged request
+ * with the whole resource, the resource is downloaded with a single stream.
+ * <br/> <br/> Connections are reused through the keep-alive cache of {@link HttpURLConnection},
+ * set the {@code http.maxConnections} system property to at least the configured parallelism.
+ *
+ * @author dnieln7
+ */
+public class RangedDownload {
+
+    /**
+     * Builder to create new instances of {@link RangedDownload}
+     *
+     * @author dnieln7
+     */
+    public static class Builder {
+        private String url;
+        private Integer parallelism;
+        private Long segmentSize;
+        private Integer maxRetries;
+        private Map<String, String> requestProperties;
+
+        /**
+         * Creates a new instance of {@link Builder} with the default configuration.
+         * <ul>
+         *     <li>Parallelism -> 4</li>
+         *     <li>Segment size -> 4 MiB</li>
+         *     <li>Max retries -> 3</li>
+         *     <li>Request properties -> <br> {}</li>
+         * </ul>
+         */
+        public Builder(String url) {
+            this.url = url;
+            this.parallelism = 4;
+            this.segmentSize = 4L * 1024 * 1024;
+            this.maxRetries = 3;
+            this.requestProperties = new HashMap<>();
+        }
+
+        /**
+         * Configure the url of the resource.
+         *
+         * @param url Valid url of the resource to download.
+         * @return The current {@link Builder} instance.
+         */
+        public Builder to(String url) {
+            this.url = url;
+
+            return this;
+        }
+
+        /**
+         * Sets the number of segments fetched at the same time, defaults to 4.
+         *
+         * @param parallelism Number of concurrent connections.
+         * @return The current {@link Builder} instance.
+         */
+        public Builder withParallelism(Integer parallelism) {
+            this.parallelism = parallelism != null && parallelism > 0 ? parallelism : 4;
+
+            return this;
+        }
+
+        /**
+         * Sets the size in bytes of each segment, defaults to 4 MiB.
+         *
+         * @param segmentSize Size of each byte range.
+         * @return The current {@link Builder} instance.
+         */
+        public Builder withSegmentSize(Long segmentSize) {
+            this.segmentSize = segmentSize != null && segmentSize > 0 ? segmentSize : 4L * 1024 * 1024;
+
+            return this;
+        }
+
+        /**
+         * Sets how many times the failed segments are fetched again, defaults to 3.
+         *
+         * @param maxRetries Number of retries.
+         * @return The current {@link Builder} instance.
+         */
+        public Builder withMaxRetries(Integer maxRetries) {
+            this.maxRetries = maxRetries != null && maxRetries >= 0 ? maxRetries : 3;
+
+            return this;
+        }
+
+        /**
+         * Sets the request properties sent with every request.
+         *
+         * @param requestProperties A {@link Map} containing the key - value, properties.
+         * @return The current {@link Builder} instance.
+         */
+        public Builder withRequestProperties(Map<String, String> requestProperties) {
+            this.requestProperties = requestProperties;
+
+            return this;
+        }
+
+        /**
+         * Creates a new instance of {@link RangedDownload} using the current configuration.
+         *
+         * @return A new instance of {@link RangedDownload}.
+         * @throws BuilderException If there´s an error in the process.
+         */
+        public RangedDownload build() throws BuilderException {
+            try {
+                return new RangedDownload(
+                        new URL(this.url),
+                        this.parallelism,
+                        this.segmentSize,
+                        this.maxRetries,
+                        this.requestProperties
+                );
+            } catch (MalformedURLException e) {
+                throw new BuilderException("There is a problem with the provided url: " + this.url);
+            }
+        }
+    }
+
+    private interface Sink {
+        void write(ByteBuffer source, long position) throws IOException;
+    }
+
+    private interface LengthSupplier {
+        long get() throws IOException;
+    }
+
+    private static class RangesNotSupportedException extends IOException {
+        private RangesNotSupportedException() {
+            super("The server ignored the Range header");
+        }
+    }
+
+    private static class Segment {
+        private final long start;
+        private final long end;
+        private long written;
+
+        private Segment(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        private long length() {
+            return end - start + 1;
+        }
+
+        private boolean isComplete() {
+            return written == length();
+        }
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final URL url;
+    private final int parallelism;
+    private final long segmentSize;
+    private final int maxRetries;
+    private final Map<String, String> properties;
+
+    private RangedDownload(URL url, int parallelism, long segmentSize, int maxRetries, Map<String, String> properties) {
+        this.url = url;
+        this.parallelism = parallelism;
+        this.segmentSize = segmentSize;
+        this.maxRetries = maxRetries;
+        this.properties = properties;
+    }
+
+    private void logError(Throwable error) {
+        Logger.getLogger(RangedDownload.class.getName()).log(Level.SEVERE, "There was an error", error);
+    }
+
+    /**
+     * Downloads the resource into a file, the file is created or truncated and preallocated
+     * to the size of the resource when known.
+     *
+     * @param target Path of the destination file.
+     * @return The supplied path, or null if the file could not be written.
+     * @throws ResponseException If theres an error with the requests.
+     */
+    public Path downloadTo(Path target) throws ResponseException {
+        try (FileChannel channel = FileChannel.open(
+                target,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING
+        )) {
+            long length = probe();
+            Sink sink = (source, position) -> {
+                while (source.hasRemaining()) {
+                    position += channel.write(source, position);
+                }
+            };
+
+            if (length >= 0) {
+                if (length > 0) {
+                    channel.write(ByteBuffer.allocate(1), length - 1);
+                }
+
+                if (fetchRanges(length, sink)) {
+                    return target;
+                }
+
+                channel.truncate(0);
+            }
+
+            fetchSingle(sink, channel::size);
+
+            return target;
+        } catch (IOException e) {
+            logError(e);
+            return null;
+        }
+    }
+
+    /**
+     * Downloads the resource into a heap {@link ByteBuffer}, resources larger than
+     * {@link Integer#MAX_VALUE} bytes should be downloaded with {@link #downloadTo(Path)}.
+     *
+     * @return A buffer positioned at zero containing the resource, or null if there was an error.
+     * @throws ResponseException If theres an error with the requests.
+     */
+    public ByteBuffer download() throws ResponseException {
+        try {
+            long length = probe();
+
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("The resource does not fit on a ByteBuffer: " + length + " bytes");
+            }
+
+            if (length >= 0) {
+                ByteBuffer buffer = ByteBuffer.allocate((int) length);
+
+                if (fetchRanges(length, (source, position) -> buffer.duplicate().position((int) position).put(source))) {
+                    return buffer;
+                }
+            }
+
+            ByteBuffer[] holder = {ByteBuffer.allocate(BUFFER_SIZE)};
+
+            fetchSingle((source, position) -> {
+                ByteBuffer buffer = holder[0];
+
+                if (buffer.remaining() < source.remaining()) {
+                    long capacity = Math.max(buffer.capacity() * 2L, (long) buffer.position() + source.remaining());
+                    ByteBuffer grown = ByteBuffer.allocate((int) Math.min(capacity, Integer.MAX_VALUE));
+
+                    grown.put(buffer.flip());
+                    holder[0] = buffer = grown;
+                }
+
+                buffer.put(source);
+            }, () -> holder[0].position());
+
+            return holder[0].flip();
+        } catch (IOException e) {
+            logError(e);
+            return null;
+        }
+    }
+
+    private HttpURLConnection open(String method) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+
+        connection.setRequestMethod(method);
+        properties.forEach(connection::setRequestProperty);
+
+        return connection;
+    }
+
+    /**
+     * @return The length of the resource if byte ranges are supported, -1 otherwise.
+     */
+    private long probe() throws IOException {
+        HttpURLConnection connection = open("HEAD");
+
+        try {
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                return -1;
+            }
+
+            String acceptRanges = connection.getHeaderField("Accept-Ranges");
+
+            if (acceptRanges == null || !acceptRanges.trim().equalsIgnoreCase("bytes")) {
+                return -1;
+            }
+
+            return connection.getContentLengthLong();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * @return True if every segment was downloaded, false if the server ignored the ranges.
+     */
+    private boolean fetchRanges(long length, Sink sink) throws ResponseException {
+        List<Segment> pending = new ArrayList<>();
+
+        for (long start = 0; start < length; start += segmentSize) {
+            pending.add(new Segment(start, Math.min(start + segmentSize, length) - 1));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(pending.size(), 1)));
+        List<Future<?>> submitted = new ArrayList<>();
+        String lastError = null;
+
+        try {
+            for (int attempt = 0; attempt <= maxRetries && !pending.isEmpty(); attempt++) {
+                Map<Segment, Future<?>> futures = new LinkedHashMap<>();
+
+                for (Segment segment : pending) {
+                    Future<?> future = executor.submit(() -> {
+                        fetchSegment(segment, sink);
+                        return null;
+                    });
+
+                    futures.put(segment, future);
+                    submitted.add(future);
+                }
+
+                List<Segment> failed = new ArrayList<>();
+
+                for (Map.Entry<Segment, Future<?>> entry : futures.entrySet()) {
+                    try {
+                        entry.getValue().get();
+                    } catch (ExecutionException e) {
+                        Throwable cause = e.getCause();
+
+                        if (cause instanceof RangesNotSupportedException) {
+                            return false;
+                        }
+
+                        if (cause instanceof ResponseException && isClientError((ResponseException) cause)) {
+                            throw (ResponseException) cause;
+                        }
+
+                        lastError = cause.getMessage();
+                        logError(cause);
+                    }
+
+                    if (!entry.getKey().isComplete()) {
+                        failed.add(entry.getKey());
+                    }
+                }
+
+                pending = failed;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lastError = "Interrupted while waiting for the segments";
+        } finally {
+            // Running segments are not interrupted, an interrupted write closes the FileChannel
+            submitted.forEach(future -> future.cancel(false));
+            executor.shutdown();
+            awaitTermination(executor);
+        }
+
+        if (!pending.isEmpty()) {
+            throw new ResponseException(
+                    "Failed: " + pending.size() + " segments could not be downloaded, last error: " + lastError,
+                    null
+            );
+        }
+
+        return true;
+    }
+
+    private static void awaitTermination(ExecutorService executor) {
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    private static boolean isClientError(ResponseException exception) {
+        return exception.getStatusCode() >= 400 && exception.getStatusCode() < 500;
+    }
+
+    private void fetchSegment(Segment segment, Sink sink) throws IOException, ResponseException {
+        HttpURLConnection connection = open("GET");
+
+        long start = segment.start + segment.written;
+
+        connection.setRequestProperty("Range", "bytes=" + start + "-" + segment.end);
+
+        if (connection.getResponseCode() == HttpURLConnection.HTTP_OK) {
+            connection.disconnect();
+
+            throw new RangesNotSupportedException();
+        }
+
+        if (connection.getResponseCode() != HttpURLConnection.HTTP_PARTIAL) {
+            try {
+                throw GenericRequestSession.responseError(connection, GenericRequestSession.DEFAULT_ERROR_BODY_LIMIT);
+            } finally {
+                connection.disconnect();
+            }
+        }
+
+        String contentRange = connection.getHeaderField("Content-Range");
+
+        if (contentRange == null || !contentRange.trim().startsWith("bytes " + start + "-" + segment.end + "/")) {
+            connection.disconnect();
+
+            throw new IOException("Expected the range " + start + "-" + segment.end + " but received: " + contentRange);
+        }
+
+        try (InputStream input = connection.getInputStream()) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+
+            while (!segment.isComplete() && (read = input.read(buffer, 0, (int) Math.min(buffer.length, segment.length() - segment.written))) != -1) {
+                sink.write(ByteBuffer.wrap(buffer, 0, read), segment.start + segment.written);
+                segment.written += read;
+            }
+        }
+
+        if (!segment.isComplete()) {
+            throw new IOException("Segment " + segment.start + "-" + segment.end + " ended after " + segment.written + " bytes");
+        }
+    }
+
+    private void fetchSingle(Sink sink, LengthSupplier written) throws IOException, ResponseException {
+        HttpURLConnection connection = open("GET");
+
+        if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+            try {
+                throw GenericRequestSession.responseError(connection, GenericRequestSession.DEFAULT_ERROR_BODY_LIMIT);
+            } finally {
+                connection.disconnect();
+            }
+        }
+
+        long expected = connection.getContentLengthLong();
+        long position = 0;
+
+        try (InputStream input = connection.getInputStream()) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+
+            while ((read = input.read(buffer)) != -1) {
+                sink.write(ByteBuffer.wrap(buffer, 0, read), position);
+                position += read;
+            }
+        }
+
+        if (expected >= 0 && (position != expected || written.get() != expected)) {
+            throw new IOException("Expected " + expected + " bytes but received " + position);
+        }
+    }
+}
@@ -0,0 +1,321 @@
+package com.dnieln7.java.generic.request;
+
+import com.dnieln7.java.generic.request.utils.PooledReader;
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A response made of multiple records, either newline-delimited JSON or Server-Sent Events
+ * ({@code text/event-stream}), each record is decoded to the configured type while it is consumed.
+ * <br/> <br/> The records can be consumed once, with {@link #iterator()} or by subscribing as a
+ * {@link Flow.Publisher}. Records are only read from the connection when the subscriber requests them,
+ * so a slow consumer slows down the server instead of buffering the response.
+ * <br/> <br/> A record whose JSON is {@code null} is returned as null by the iterator, subscribers receive
+ * a {@link NullPointerException} instead because {@link Flow.Subscriber#onNext(Object)} does not accept null.
+ * <br/> <br/> The connection is released when every record is consumed, on errors and on {@link #close()}.
+ *
+ * @author dnieln7
+ */
+public class ResponseStream<T> implements Flow.Publisher<T>, Iterable<T>, AutoCloseable {
+
+    private class StreamSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super T> subscriber;
+        private long demand;
+        private boolean cancelled;
+        private IllegalArgumentException invalidRequest;
+
+        private StreamSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public synchronized void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("The number of requested records must be positive: " + n);
+            } else {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            }
+
+            notifyAll();
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (this) {
+                cancelled = true;
+                notifyAll();
+            }
+
+            connection.disconnect();
+        }
+
+        private synchronized boolean awaitDemand() throws InterruptedException {
+            while (demand == 0 && !cancelled && invalidRequest == null) {
+                wait();
+            }
+
+            if (invalidRequest != null) {
+                throw invalidRequest;
+            }
+
+            return !cancelled;
+        }
+
+        private synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (awaitDemand()) {
+                    if (!read()) {
+                        subscriber.onComplete();
+                        break;
+                    }
+
+                    if (record == null) {
+                        throw new NullPointerException("The response contains a null record");
+                    }
+
+                    synchronized (this) {
+                        demand--;
+                    }
+
+                    subscriber.onNext(record);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                if (!isCancelled()) {
+                    subscriber.onError(e);
+                }
+            } finally {
+                close();
+            }
+        }
+    }
+
+    private static final Gson GSON = new Gson();
+
+    private final HttpURLConnection connection;
+    private final PooledReader reader;
+    private final Class<T> typeClass;
+    private final boolean eventStream;
+    private final AtomicBoolean consumed;
+    private final AtomicBoolean closed;
+    private final ReentrantLock reading;
+    private boolean released;
+    private T record;
+
+    ResponseStream(HttpURLConnection connection, PooledReader reader, Class<T> typeClass) {
+        String contentType = connection.getContentType();
+
+        this.connection = connection;
+        this.reader = reader;
+        this.typeClass = typeClass;
+        this.eventStream = contentType != null && contentType.toLowerCase().startsWith("text/event-stream");
+        this.consumed = new AtomicBoolean();
+        this.closed = new AtomicBoolean();
+        this.reading = new ReentrantLock();
+    }
+
+    private void logError(Throwable error) {
+        Logger.getLogger(ResponseStream.class.getName()).log(Level.SEVERE, "There was an error", error);
+    }
+
+    /**
+     * Reads the next record holding the reading lock, the pooled buffers of the reader are only released
+     * by the thread holding it. If the stream was closed while reading they are released on the way out.
+     *
+     * @return False if there are no more records.
+     */
+    private boolean read() throws IOException {
+        reading.lock();
+
+        try {
+            if (closed.get()) {
+                throw new IOException("The stream is closed");
+            }
+
+            return readNext();
+        } finally {
+            reading.unlock();
+
+            if (closed.get()) {
+                releaseReader();
+            }
+        }
+    }
+
+    /**
+     * Closes the reader unless another thread is reading, that thread closes it when it finishes.
+     */
+    private void releaseReader() {
+        if (reading.tryLock()) {
+            try {
+                if (!released) {
+                    released = true;
+                    reader.close();
+                }
+            } catch (IOException e) {
+                logError(e);
+            } finally {
+                reading.unlock();
+            }
+        }
+    }
+
+    /**
+     * Reads and decodes the next record into {@link #record}, records can be null.
+     *
+     * @return False if there are no more records.
+     */
+    private boolean readNext() throws IOException {
+        return eventStream ? readNextEvent() : readNextLine();
+    }
+
+    private boolean readNextLine() throws IOException {
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            if (!line.isBlank()) {
+                record = GSON.fromJson(line, typeClass);
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean readNextEvent() throws IOException {
+        StringBuilder data = null;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                if (data != null) {
+                    record = GSON.fromJson(data.toString(), typeClass);
+                    return true;
+                }
+            } else if (line.startsWith("data:")) {
+                String value = line.startsWith("data: ") ? line.substring(6) : line.substring(5);
+
+                data = data == null ? new StringBuilder(value) : data.append('\n').append(value);
+            } else if (line.equals("data")) {
+                data = data == null ? new StringBuilder() : data.append('\n');
+            }
+        }
+
+        return false;
+    }
+
+    private void claim() {
+        if (!consumed.compareAndSet(false, true)) {
+            throw new IllegalStateException("The response stream has already been consumed");
+        }
+    }
+
+    /**
+     * Returns a blocking iterator over the records, each call to {@link Iterator#hasNext()} reads
+     * from the connection only when the previous record was consumed.
+     * <br/> <br/> Connection errors are thrown as {@link UncheckedIOException}.
+     *
+     * @return An iterator over the decoded records.
+     * @throws IllegalStateException If the stream has already been consumed.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        claim();
+
+        return new Iterator<>() {
+            private boolean fetched;
+
+            @Override
+            public boolean hasNext() {
+                if (!fetched && !closed.get()) {
+                    try {
+                        fetched = read();
+                    } catch (IOException e) {
+                        close();
+                        throw new UncheckedIOException(e);
+                    } catch (RuntimeException e) {
+                        close();
+                        throw e;
+                    }
+
+                    if (!fetched) {
+                        close();
+                    }
+                }
+
+                return fetched;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                fetched = false;
+
+                return record;
+            }
+        };
+    }
+
+    /**
+     * Subscribes to the records, they are read and delivered on a dedicated thread as they are requested.
+     * Only one subscriber is supported.
+     *
+     * @param subscriber Subscriber to receive the decoded records.
+     */
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        try {
+            claim();
+        } catch (IllegalStateException e) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(e);
+            return;
+        }
+
+        StreamSubscription subscription = new StreamSubscription(subscriber);
+        Thread thread = new Thread(subscription, "generic-request-stream");
+
+        thread.setDaemon(true);
+        subscriber.onSubscribe(subscription);
+        thread.start();
+    }
+
+    /**
+     * Releases the connection, pending records are discarded. When another thread is reading a record
+     * the connection is disconnected to unblock it and that thread releases the reader.
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            releaseReader();
+            connection.disconnect();
+        }
+    }
+}
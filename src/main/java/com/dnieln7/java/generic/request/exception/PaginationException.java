@@ -0,0 +1,18 @@
+package com.dnieln7.java.generic.request.exception;
+
+import com.dnieln7.java.generic.request.Paginator;
+
+/**
+ * Exception thrown if a page can not be fetched while consuming the stream of a {@link Paginator}.
+ *
+ * @author dnieln7
+ */
+public class PaginationException extends RuntimeException {
+    public PaginationException(String message) {
+        super(message);
+    }
+
+    public PaginationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
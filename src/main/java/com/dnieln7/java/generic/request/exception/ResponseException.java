@@ -1,26 +1,96 @@
 package com.dnieln7.java.generic.request.exception;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 
 /**
  * Exception thrown if theres an error when sending an http request.
+ * <br/> <br/> The error body returned by the server is kept as bytes, up to the limit configured on the session,
+ * and it is only parsed when {@link #getServerErrors()} is called.
  *
  * @author dnieln7
  */
 public class ResponseException extends Exception {
 
-    private final transient JsonObject serverError;
+    private final int statusCode;
+    private final transient Map<String, List<String>> headers;
+    private final byte[] errorBody;
+    private transient JsonObject serverError;
+    private transient boolean parsed;
 
     public ResponseException(String message, JsonObject serverError) {
+        this(message, -1, serverError);
+    }
+
+    public ResponseException(String message, int statusCode, JsonObject serverError) {
         super(message);
+        this.statusCode = statusCode;
+        this.headers = Collections.emptyMap();
+        this.errorBody = new byte[0];
         this.serverError = serverError;
+        this.parsed = true;
+    }
+
+    public ResponseException(String message, int statusCode, Map<String, List<String>> headers, byte[] errorBody) {
+        super(message);
+        this.statusCode = statusCode;
+        this.headers = headers != null ? headers : Collections.emptyMap();
+        this.errorBody = errorBody != null ? errorBody : new byte[0];
     }
 
     /**
-     * @return Error body returned by the server on a {@link JsonObject} format.
+     * @return Error body returned by the server on a {@link JsonObject} format,
+     * or null if the body is empty, truncated or is not a JSON object.
      */
-    public JsonObject getServerErrors() {
+    public synchronized JsonObject getServerErrors() {
+        if (!parsed) {
+            parsed = true;
+
+            try {
+                JsonElement element = JsonParser.parseString(getErrorBodyAsString());
+
+                serverError = element.isJsonObject() ? element.getAsJsonObject() : null;
+            } catch (JsonParseException e) {
+                serverError = null;
+            }
+        }
+
         return serverError;
     }
+
+    /**
+     * @return Http status code returned by the server, -1 if unknown.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * @return Headers returned by the server, empty if unknown or if the exception was deserialized.
+     */
+    public Map<String, List<String>> getHeaders() {
+        return headers != null ? headers : Collections.emptyMap();
+    }
+
+    /**
+     * @return A copy of the error body returned by the server, truncated to the limit configured on the session.
+     */
+    public byte[] getErrorBody() {
+        return errorBody.clone();
+    }
+
+    /**
+     * @return The error body returned by the server decoded as UTF-8.
+     */
+    public String getErrorBodyAsString() {
+        return new String(errorBody, StandardCharsets.UTF_8);
+    }
 }
@@ -0,0 +1,17 @@
+package com.dnieln7.java.generic.request.utils;
+
+/**
+ * Collection of strategies to pick the endpoint of each request.
+ *
+ * @author dnieln7
+ */
+public enum BalancingStrategy {
+    /**
+     * Picks the endpoint with the fewest requests in flight, ties are broken by the observed latency.
+     */
+    LEAST_OUTSTANDING_REQUESTS,
+    /**
+     * Picks two random endpoints and keeps the one with the lowest requests in flight weighted by the observed latency.
+     */
+    POWER_OF_TWO_CHOICES
+}
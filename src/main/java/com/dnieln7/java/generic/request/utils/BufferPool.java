@@ -0,0 +1,144 @@
+package com.dnieln7.java.generic.request.utils;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool of fixed size heap {@link ByteBuffer} used to read and write request and response bodies.
+ * <br/> <br/> The buffers are kept on a fixed number of slots, each thread starts looking for a buffer
+ * on a different slot to avoid contention. When the pool is empty a new buffer is allocated (a miss)
+ * and when the pool is full the released buffer is left to the garbage collector.
+ *
+ * @author dnieln7
+ */
+public class BufferPool {
+
+    /**
+     * Size in bytes of the buffers of the shared pool.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+    private static final BufferPool SHARED = new BufferPool(
+            DEFAULT_BUFFER_SIZE,
+            Math.max(4, Runtime.getRuntime().availableProcessors() * 2)
+    );
+
+    private final int bufferSize;
+    private final AtomicReferenceArray<ByteBuffer> slots;
+    private final AtomicInteger occupancy;
+    private final LongAdder hits;
+    private final LongAdder misses;
+
+    /**
+     * Creates a new instance of {@link BufferPool}.
+     *
+     * @param bufferSize Size in bytes of each buffer.
+     * @param capacity   Maximum number of buffers kept by the pool.
+     */
+    public BufferPool(int bufferSize, int capacity) {
+        this.bufferSize = bufferSize;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.occupancy = new AtomicInteger();
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+    }
+
+    /**
+     * @return The pool shared by every {@link com.dnieln7.java.generic.request.GenericRequestSession}.
+     */
+    public static BufferPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * Takes a buffer from the pool or allocates a new one if the pool is empty.
+     *
+     * @return A cleared buffer of {@link #getBufferSize()} bytes.
+     */
+    public ByteBuffer acquire() {
+        int capacity = slots.length();
+        int start = stripe(capacity);
+
+        for (int i = 0; i < capacity; i++) {
+            int index = (start + i) % capacity;
+            ByteBuffer buffer = slots.get(index);
+
+            if (buffer != null && slots.compareAndSet(index, buffer, null)) {
+                occupancy.decrementAndGet();
+                hits.increment();
+
+                return buffer.clear();
+            }
+        }
+
+        misses.increment();
+
+        return ByteBuffer.allocate(bufferSize);
+    }
+
+    /**
+     * Returns a buffer to the pool, buffers of a different size are ignored.
+     * The buffer must not be used after it is released.
+     *
+     * @param buffer A buffer obtained with {@link #acquire()}.
+     */
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || buffer.capacity() != bufferSize || !buffer.hasArray()) {
+            return;
+        }
+
+        int capacity = slots.length();
+        int start = stripe(capacity);
+
+        for (int i = 0; i < capacity; i++) {
+            int index = (start + i) % capacity;
+
+            if (slots.get(index) == null && slots.compareAndSet(index, null, buffer)) {
+                occupancy.incrementAndGet();
+
+                return;
+            }
+        }
+    }
+
+    private static int stripe(int capacity) {
+        return capacity == 0 ? 0 : (int) (Thread.currentThread().getId() % capacity);
+    }
+
+    /**
+     * @return Size in bytes of each buffer.
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * @return Maximum number of buffers kept by the pool.
+     */
+    public int getCapacity() {
+        return slots.length();
+    }
+
+    /**
+     * @return Number of buffers currently kept by the pool.
+     */
+    public int getOccupancy() {
+        return occupancy.get();
+    }
+
+    /**
+     * @return Number of buffers taken from the pool.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return Number of buffers allocated because the pool was empty.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+}
@@ -0,0 +1,150 @@
+package com.dnieln7.java.generic.request.utils;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Set of JSON paths to keep when reading a response, every other value is skipped without being parsed.
+ * <br/> <br/> Nested fields are separated by dots and {@code *} matches any field name, arrays are traversed
+ * applying the same path to each element. For example {@code "seller.name"} keeps the name of the seller and
+ * {@code "items.price"} keeps the price of every item of the items array.
+ *
+ * @author dnieln7
+ */
+public class JsonProjection {
+
+    private static class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private boolean leaf;
+
+        private Node child(String name) {
+            Node child = children.get(name);
+
+            return child != null ? child : children.get("*");
+        }
+
+        private void merge(Node other) {
+            leaf |= other.leaf;
+
+            other.children.forEach((name, child) -> children.computeIfAbsent(name, key -> new Node()).merge(child));
+        }
+
+        /**
+         * Copies the paths of the {@code *} child into every named child, so a named child
+         * does not hide the paths that only the wildcard declares.
+         */
+        private void mergeWildcards() {
+            Node wildcard = children.get("*");
+
+            if (wildcard != null) {
+                children.forEach((name, child) -> {
+                    if (child != wildcard) {
+                        child.merge(wildcard);
+                    }
+                });
+            }
+
+            children.values().forEach(Node::mergeWildcards);
+        }
+    }
+
+    private final Node root;
+
+    /**
+     * Creates a new instance of {@link JsonProjection} keeping the supplied paths.
+     *
+     * @param paths JSON paths to keep, nested fields are separated by dots.
+     */
+    public JsonProjection(String... paths) {
+        this.root = new Node();
+
+        for (String path : paths) {
+            Node node = root;
+
+            for (String name : path.split("\\.")) {
+                node = node.children.computeIfAbsent(name, key -> new Node());
+            }
+
+            node.leaf = true;
+        }
+
+        this.root.mergeWildcards();
+    }
+
+    /**
+     * Reads the next value of the reader keeping only the configured paths.
+     *
+     * @param reader A {@link JsonReader} positioned before the value to read.
+     * @return A {@link JsonElement} containing only the configured paths.
+     * @throws IOException If theres an error reading the value.
+     */
+    public JsonElement read(JsonReader reader) throws IOException {
+        JsonElement element = read(reader, root);
+
+        return element != null ? element : JsonNull.INSTANCE;
+    }
+
+    private JsonElement read(JsonReader reader, Node node) throws IOException {
+        if (node.leaf) {
+            return JsonParser.parseReader(reader);
+        }
+
+        JsonToken token = reader.peek();
+
+        if (token == JsonToken.BEGIN_OBJECT) {
+            JsonObject object = new JsonObject();
+
+            reader.beginObject();
+
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                Node child = node.child(name);
+
+                if (child == null) {
+                    reader.skipValue();
+                } else {
+                    JsonElement value = read(reader, child);
+
+                    if (value != null) {
+                        object.add(name, value);
+                    }
+                }
+            }
+
+            reader.endObject();
+
+            return object;
+        }
+
+        if (token == JsonToken.BEGIN_ARRAY) {
+            JsonArray array = new JsonArray();
+
+            reader.beginArray();
+
+            while (reader.hasNext()) {
+                JsonElement value = read(reader, node);
+
+                if (value != null) {
+                    array.add(value);
+                }
+            }
+
+            reader.endArray();
+
+            return array;
+        }
+
+        reader.skipValue();
+
+        return null;
+    }
+}
@@ -0,0 +1,271 @@
+package com.dnieln7.java.generic.request.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reader that decodes an UTF-8 {@link InputStream} using a buffer taken from a {@link BufferPool},
+ * the buffer is returned to the pool when the reader is closed or released.
+ * <br/> <br/> {@link #readLine()} decodes into a second pooled buffer, so reading lines does not need
+ * a {@link java.io.BufferedReader}.
+ *
+ * @author dnieln7
+ */
+public class PooledReader extends Reader {
+
+    private final InputStream input;
+    private final BufferPool pool;
+    private final CharsetDecoder decoder;
+    private ByteBuffer bytes;
+    private boolean endOfInput;
+    private boolean flushed;
+    private ByteBuffer lineBytes;
+    private CharBuffer lineChars;
+    private StringBuilder line;
+    private boolean skipLineFeed;
+    private char[] pair;
+    private char carry;
+    private boolean hasCarry;
+
+    /**
+     * Creates a new instance of {@link PooledReader} using the shared {@link BufferPool}.
+     *
+     * @param input Stream to decode.
+     */
+    public PooledReader(InputStream input) {
+        this(input, BufferPool.shared());
+    }
+
+    /**
+     * Creates a new instance of {@link PooledReader}.
+     *
+     * @param input Stream to decode.
+     * @param pool  Pool to take the buffer from.
+     */
+    public PooledReader(InputStream input, BufferPool pool) {
+        this.input = input;
+        this.pool = pool;
+        this.decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.bytes = pool.acquire().flip();
+    }
+
+    @Override
+    public int read(char[] chars, int offset, int length) throws IOException {
+        if (bytes == null) {
+            throw new IOException("The reader is closed");
+        }
+
+        if (length == 0) {
+            return 0;
+        }
+
+        if (hasCarry) {
+            hasCarry = false;
+            chars[offset] = carry;
+
+            return 1;
+        }
+
+        if (skipLineFeed) {
+            skipLineFeed = false;
+
+            if (peek() == '\n') {
+                lineChars.get();
+            }
+        }
+
+        if (lineChars != null && lineChars.hasRemaining()) {
+            int count = Math.min(length, lineChars.remaining());
+
+            lineChars.get(chars, offset, count);
+
+            return count;
+        }
+
+        if (length == 1) {
+            return readSingle(chars, offset);
+        }
+
+        return decode(CharBuffer.wrap(chars, offset, length));
+    }
+
+    /**
+     * Decodes into a 2 char buffer, a surrogate pair does not fit on a single char and the decoder would
+     * make no progress, the second char is returned by the next read.
+     */
+    private int readSingle(char[] chars, int offset) throws IOException {
+        if (pair == null) {
+            pair = new char[2];
+        }
+
+        int read = decode(CharBuffer.wrap(pair));
+
+        if (read < 0) {
+            return -1;
+        }
+
+        chars[offset] = pair[0];
+
+        if (read == 2) {
+            carry = pair[1];
+            hasCarry = true;
+        }
+
+        return 1;
+    }
+
+    /**
+     * Reads a line of text, a line ends with {@code \n}, {@code \r} or {@code \r\n}.
+     *
+     * @return The line without the line terminator, or null if the end of the stream was reached.
+     * @throws IOException If theres an error reading the stream.
+     */
+    public String readLine() throws IOException {
+        if (bytes == null) {
+            throw new IOException("The reader is closed");
+        }
+
+        if (line == null) {
+            line = new StringBuilder();
+        }
+
+        line.setLength(0);
+
+        while (true) {
+            int next = peek();
+
+            if (next < 0) {
+                return line.length() > 0 ? line.toString() : null;
+            }
+
+            char c = lineChars.get();
+
+            if (skipLineFeed) {
+                skipLineFeed = false;
+
+                if (c == '\n') {
+                    continue;
+                }
+            }
+
+            if (c == '\n' || c == '\r') {
+                skipLineFeed = c == '\r';
+
+                return line.toString();
+            }
+
+            line.append(c);
+        }
+    }
+
+    /**
+     * @return The next char of the line buffer without consuming it, or -1 if the end of the stream was reached.
+     */
+    private int peek() throws IOException {
+        if (lineChars == null) {
+            lineBytes = pool.acquire();
+            lineChars = lineBytes.asCharBuffer();
+            lineChars.limit(0);
+        }
+
+        if (!lineChars.hasRemaining()) {
+            lineChars.clear();
+
+            if (hasCarry) {
+                hasCarry = false;
+                lineChars.put(carry);
+            }
+
+            int read = decode(lineChars);
+
+            lineChars.flip();
+
+            if (read < 0 && !lineChars.hasRemaining()) {
+                return -1;
+            }
+        }
+
+        return lineChars.get(lineChars.position());
+    }
+
+    private int decode(CharBuffer output) throws IOException {
+        int offset = output.position();
+
+        while (true) {
+            if (!flushed) {
+                decoder.decode(bytes, output, endOfInput);
+            }
+
+            if (output.position() > offset) {
+                return output.position() - offset;
+            }
+
+            if (endOfInput) {
+                if (!flushed) {
+                    flushed = true;
+                    decoder.flush(output);
+
+                    if (output.position() > offset) {
+                        return output.position() - offset;
+                    }
+                }
+
+                return -1;
+            }
+
+            fill();
+        }
+    }
+
+    private void fill() throws IOException {
+        bytes.compact();
+
+        if (!bytes.hasRemaining()) {
+            bytes.flip();
+
+            throw new IOException("The decoder made no progress on a full buffer");
+        }
+
+        int read = input.read(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+
+        if (read < 0) {
+            endOfInput = true;
+        } else {
+            bytes.position(bytes.position() + read);
+        }
+
+        bytes.flip();
+    }
+
+    /**
+     * Returns the buffer to the pool without closing the {@link InputStream}, the reader can not be used afterwards.
+     */
+    public void release() {
+        if (bytes != null) {
+            pool.release(bytes);
+            bytes = null;
+        }
+
+        if (lineBytes != null) {
+            pool.release(lineBytes);
+            lineBytes = null;
+            lineChars = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (bytes != null) {
+            release();
+            input.close();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.dnieln7.java.generic.request.utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writer that encodes text as UTF-8 into a buffer taken from a {@link BufferPool}, the buffer is written to the
+ * {@link OutputStream} when it is full and returned to the pool when the writer is closed.
+ * <br/> <br/> Closing the writer does not close the {@link OutputStream}.
+ *
+ * @author dnieln7
+ */
+public class PooledWriter extends Writer {
+
+    private final OutputStream output;
+    private final BufferPool pool;
+    private final CharsetEncoder encoder;
+    private ByteBuffer bytes;
+    private char highSurrogate;
+
+    /**
+     * Creates a new instance of {@link PooledWriter} using the shared {@link BufferPool}.
+     *
+     * @param output Stream to write the encoded text.
+     */
+    public PooledWriter(OutputStream output) {
+        this(output, BufferPool.shared());
+    }
+
+    /**
+     * Creates a new instance of {@link PooledWriter}.
+     *
+     * @param output Stream to write the encoded text.
+     * @param pool   Pool to take the buffer from.
+     */
+    public PooledWriter(OutputStream output, BufferPool pool) {
+        this.output = output;
+        this.pool = pool;
+        this.encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.bytes = pool.acquire();
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) throws IOException {
+        encode(CharBuffer.wrap(chars, offset, length));
+    }
+
+    @Override
+    public void write(String text, int offset, int length) throws IOException {
+        encode(CharBuffer.wrap(text, offset, offset + length));
+    }
+
+    private void encode(CharBuffer input) throws IOException {
+        if (bytes == null) {
+            throw new IOException("The writer is closed");
+        }
+
+        if (highSurrogate != 0 && input.hasRemaining()) {
+            CharBuffer pair = CharBuffer.wrap(new char[]{highSurrogate, input.get()});
+
+            highSurrogate = 0;
+            encode(pair);
+        }
+
+        while (true) {
+            CoderResult result = encoder.encode(input, bytes, false);
+
+            if (result.isOverflow()) {
+                drain();
+            } else {
+                break;
+            }
+        }
+
+        if (input.hasRemaining()) {
+            highSurrogate = input.get();
+        }
+    }
+
+    private void drain() throws IOException {
+        output.write(bytes.array(), bytes.arrayOffset(), bytes.position());
+        bytes.clear();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (bytes != null) {
+            drain();
+            output.flush();
+        }
+    }
+
+    /**
+     * Writes the pending text, flushes the {@link OutputStream} and returns the buffer to the pool.
+     *
+     * @throws IOException If theres an error writing the text.
+     */
+    @Override
+    public void close() throws IOException {
+        if (bytes == null) {
+            return;
+        }
+
+        try {
+            CharBuffer pending = highSurrogate != 0
+                    ? CharBuffer.wrap(String.valueOf(highSurrogate))
+                    : CharBuffer.allocate(0);
+
+            while (encoder.encode(pending, bytes, true).isOverflow()) {
+                drain();
+            }
+
+            while (encoder.flush(bytes).isOverflow()) {
+                drain();
+            }
+
+            flush();
+        } finally {
+            pool.release(bytes);
+            bytes = null;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.dnieln7.java.generic.request;
+
+import com.dnieln7.java.generic.request.exception.BuilderException;
+import com.dnieln7.java.generic.request.exception.ResponseException;
+import com.dnieln7.java.generic.request.utils.BalancingStrategy;
+import com.google.gson.JsonObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test class for {@link LoadBalancer}
+ *
+ * @author dnieln7
+ */
+@DisplayName("When running LoadBalancer")
+public class LoadBalancerTest {
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private LoadBalancer balancer;
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws IOException, BuilderException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/empty", exchange -> {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.createContext("/dropped", HttpExchange::close);
+        server.createContext("/unavailable", exchange -> {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+        });
+        server.createContext("/a", exchange -> replica("a", exchange));
+        server.createContext("/b", exchange -> replica("b", exchange));
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.start();
+
+        balancer = new LoadBalancer.Builder(
+                Collections.singletonList("http://localhost:" + server.getAddress().getPort())
+        ).withFailureThreshold(2).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Handles the requests of the replicas, /slow waits until the test releases it and /dropped closes the connection.
+     * Dropped requests are not counted as hits because the connection retries them once.
+     */
+    private void replica(String name, HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+
+        if (path.endsWith("/dropped")) {
+            exchange.close();
+            return;
+        }
+
+        hits.computeIfAbsent(name, key -> new AtomicInteger()).incrementAndGet();
+
+        if (path.endsWith("/slow")) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        exchange.sendResponseHeaders(200, -1);
+        exchange.close();
+    }
+
+    private int hits(String name) {
+        return hits.getOrDefault(name, new AtomicInteger()).get();
+    }
+
+    private LoadBalancer.Builder replicas() {
+        String base = "http://localhost:" + server.getAddress().getPort();
+
+        return new LoadBalancer.Builder(Arrays.asList(base + "/a", base + "/b"));
+    }
+
+    private static JsonObject get(LoadBalancer balancer, String path) throws BuilderException, ResponseException {
+        return balancer.send(path, builder -> builder.build().sendRequest(JsonObject.class));
+    }
+
+    private void assertBusyEndpointIsAvoided(LoadBalancer balancer) throws Exception {
+        Future<JsonObject> slow = executor.submit(() -> get(balancer, "/slow"));
+
+        while (hits("a") + hits("b") == 0) {
+            Thread.sleep(10);
+        }
+
+        String busy = hits("a") == 1 ? "a" : "b";
+        String idle = busy.equals("a") ? "b" : "a";
+
+        get(balancer, "/fast");
+
+        Assertions.assertEquals(1, hits(busy), () -> "The endpoint with a request in flight should be avoided");
+        Assertions.assertEquals(1, hits(idle));
+
+        release.countDown();
+        slow.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    @DisplayName("When the response is empty the request counts as successful")
+    void testEmptyResponse() throws BuilderException, ResponseException {
+        JsonObject result = balancer.send("/empty", builder -> builder.build().sendRequest(JsonObject.class));
+
+        Assertions.assertNull(result);
+        Assertions.assertEquals(1, balancer.getStats().get(0).getSuccesses());
+        Assertions.assertEquals(0, balancer.getStats().get(0).getFailures());
+    }
+
+    @Test
+    @DisplayName("When the connection is dropped the request counts as failed even if a value is returned")
+    void testDroppedConnection() throws BuilderException, ResponseException {
+        balancer.send("/dropped", builder -> builder.build().sendRequestExpectingList(JsonObject[].class));
+        balancer.send("/dropped", builder -> builder.build().sendRequestExpectingList(JsonObject[].class));
+
+        Assertions.assertEquals(0, balancer.getStats().get(0).getSuccesses());
+        Assertions.assertEquals(2, balancer.getStats().get(0).getFailures());
+        Assertions.assertTrue(balancer.getStats().get(0).isEjected(), () -> "The endpoint should be ejected");
+    }
+
+    @Test
+    @DisplayName("When the endpoint answers with a 5xx status code the request counts as failed")
+    void testServerError() {
+        Assertions.assertThrows(
+                ResponseException.class,
+                () -> balancer.send("/unavailable", builder -> builder.build().sendRequest(JsonObject.class))
+        );
+        Assertions.assertEquals(1, balancer.getStats().get(0).getFailures());
+    }
+
+    @Test
+    @DisplayName("When using least outstanding requests the endpoint with a request in flight is avoided")
+    void testLeastOutstandingRequests() throws Exception {
+        assertBusyEndpointIsAvoided(replicas().withStrategy(BalancingStrategy.LEAST_OUTSTANDING_REQUESTS).build());
+    }
+
+    @Test
+    @DisplayName("When using power of two choices the endpoint with a request in flight is avoided")
+    void testPowerOfTwoChoices() throws Exception {
+        assertBusyEndpointIsAvoided(replicas().withStrategy(BalancingStrategy.POWER_OF_TWO_CHOICES).build());
+    }
+
+    @Test
+    @DisplayName("When an endpoint is ejected it receives no requests until the ejection time elapses")
+    void testEjection() throws Exception {
+        LoadBalancer balancer = replicas()
+                .withFailureThreshold(1)
+                .withEjectionTime(Duration.ofSeconds(30))
+                .build();
+
+        balancer.send("/dropped", builder -> builder.build().sendRequestExpectingList(JsonObject[].class));
+        get(balancer, "/fast");
+        get(balancer, "/fast");
+
+        Assertions.assertEquals(0, hits("a"));
+        Assertions.assertEquals(2, hits("b"));
+        Assertions.assertTrue(balancer.getStats().get(0).isEjected(), () -> "The failed endpoint should be ejected");
+    }
+
+    @Test
+    @DisplayName("When the ejection time elapses the endpoint receives requests again")
+    void testReadmission() throws Exception {
+        LoadBalancer balancer = replicas()
+                .withFailureThreshold(1)
+                .withEjectionTime(Duration.ofNanos(1))
+                .build();
+
+        balancer.send("/dropped", builder -> builder.build().sendRequestExpectingList(JsonObject[].class));
+        get(balancer, "/fast");
+
+        Assertions.assertEquals(1, hits("a"), () -> "The endpoint should be picked again after the cool-down");
+        Assertions.assertEquals(0, hits("b"));
+        Assertions.assertEquals(1, balancer.getStats().get(0).getSuccesses());
+        Assertions.assertFalse(balancer.getStats().get(0).isEjected());
+    }
+
+    @Test
+    @DisplayName("When every endpoint is ejected the requests are spread across all of them")
+    void testAllEjected() throws Exception {
+        LoadBalancer balancer = replicas()
+                .withFailureThreshold(1)
+                .withEjectionTime(Duration.ofSeconds(30))
+                .build();
+
+        for (int i = 0; i < 2; i++) {
+            balancer.send("/dropped", builder -> builder.build().sendRequestExpectingList(JsonObject[].class));
+        }
+
+        Assertions.assertTrue(balancer.getStats().stream().allMatch(LoadBalancer.EndpointStats::isEjected));
+
+        get(balancer, "/fast");
+
+        Assertions.assertEquals(1, hits("a") + hits("b"), () -> "The request should still reach an endpoint");
+        Assertions.assertEquals(1, balancer.getStats().stream().mapToLong(LoadBalancer.EndpointStats::getSuccesses).sum());
+    }
+}
@@ -0,0 +1,91 @@
+package com.dnieln7.java.generic.request;
+
+import com.dnieln7.java.generic.request.exception.BuilderException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Test class for {@link MultipartBody}
+ *
+ * @author dnieln7
+ */
+@DisplayName("When running MultipartBody")
+public class MultipartBodyTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("When every part has a known size the content length matches the written body")
+    void testKnownLength() throws IOException, BuilderException {
+        Path file = Files.write(directory.resolve("picture.png"), new byte[]{1, 2, 3, 4, 5});
+
+        MultipartBody body = new MultipartBody.Builder()
+                .addTextPart("description", "Ensalada ñ")
+                .addFilePart("picture", file, "image/png")
+                .build();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        body.writeTo(output);
+
+        Assertions.assertEquals(output.size(), body.getContentLength(), () -> "The length should match the body");
+    }
+
+    @Test
+    @DisplayName("When the body has a JSON part the content length is unknown")
+    void testUnknownLength() throws BuilderException {
+        MultipartBody body = new MultipartBody.Builder()
+                .addTextPart("description", "Salad")
+                .addJsonPart("product", Map.of("name", "salad"))
+                .build();
+
+        Assertions.assertEquals(-1, body.getContentLength(), () -> "The length should be unknown");
+    }
+
+    @Test
+    @DisplayName("When writing the body every part is delimited by the boundary")
+    void testWriteTo() throws IOException, BuilderException {
+        Path file = Files.write(directory.resolve("notes.txt"), "FILE".getBytes(StandardCharsets.UTF_8));
+
+        MultipartBody body = new MultipartBody.Builder()
+                .addJsonPart("product", Map.of("name", "salad"))
+                .addFilePart("notes", file)
+                .build();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        body.writeTo(output);
+
+        String boundary = body.getContentType().substring(body.getContentType().indexOf("boundary=") + 9);
+        String expected = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"product\"\r\n"
+                + "Content-Type: application/json; charset=UTF-8\r\n\r\n"
+                + "{\"name\":\"salad\"}\r\n"
+                + "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"notes\"; filename=\"notes.txt\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n"
+                + "FILE\r\n"
+                + "--" + boundary + "--\r\n";
+
+        Assertions.assertEquals(expected, output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("When a file part does not exist")
+    void testMissingFile() {
+        MultipartBody.Builder builder = new MultipartBody.Builder()
+                .addFilePart("picture", directory.resolve("missing.png"));
+
+        Assertions.assertThrows(BuilderException.class, builder::build, () -> "Should throw BuilderException");
+    }
+}
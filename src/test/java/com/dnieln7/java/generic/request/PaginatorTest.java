@@ -0,0 +1,246 @@
+package com.dnieln7.java.generic.request;
+
+import com.dnieln7.java.generic.request.exception.BuilderException;
+import com.dnieln7.java.generic.request.exception.PaginationException;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Test class for {@link Paginator}
+ *
+ * @author dnieln7
+ */
+@DisplayName("When running Paginator")
+public class PaginatorTest {
+
+    private static class Product {
+        private String name;
+    }
+
+    /**
+     * Serves 3 pages of 2 items for the page or offset query parameters, the following pages are empty.
+     */
+    private static HttpServer pagedServer(List<String> queries) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+
+        server.createContext("/products", exchange -> {
+            String query = exchange.getRequestURI().getQuery();
+            int value = Integer.parseInt(query.substring(query.indexOf('=') + 1));
+            int index = query.startsWith("page=") ? value - 1 : value / 2;
+            String body = index < 3
+                    ? "[{\"name\":\"" + index + "a\"},{\"name\":\"" + index + "b\"}]"
+                    : "[]";
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+
+            queries.add(query);
+            exchange.sendResponseHeaders(200, bytes.length);
+
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(bytes);
+            }
+        });
+        server.start();
+
+        return server;
+    }
+
+    private static String url(HttpServer server) {
+        return "http://localhost:" + server.getAddress().getPort() + "/products";
+    }
+
+    @Test
+    @DisplayName("When the Link header has a next relation its url is resolved against the current page")
+    void testLinkHeader() {
+        Map<String, List<String>> headers = Map.of("Link", Collections.singletonList(
+                "<https://api.com/products?page=1>; rel=\"prev\", </products?page=3>; rel=\"next last\""
+        ));
+
+        String next = Paginator.nextFromLinkHeader("https://api.com/products?page=2", null, headers, 10);
+
+        Assertions.assertEquals("https://api.com/products?page=3", next);
+    }
+
+    @Test
+    @DisplayName("When the Link header has no next relation the pagination ends")
+    void testLinkHeaderWithoutNext() {
+        Map<String, List<String>> headers = Map.of("Link", Collections.singletonList(
+                "<https://api.com/products?page=1>; rel=\"prev\""
+        ));
+
+        Assertions.assertNull(Paginator.nextFromLinkHeader("https://api.com/products?page=2", null, headers, 10));
+        Assertions.assertNull(Paginator.nextFromLinkHeader("https://api.com/products?page=2", null, Map.of(), 10));
+    }
+
+    @Test
+    @DisplayName("When adding a query parameter the existing value is replaced and the fragment is kept")
+    void testQueryParameter() {
+        Assertions.assertEquals(
+                "https://api.com/products?sort=name&page=3#top",
+                Paginator.withQueryParameter("https://api.com/products?page=2&sort=name#top", "page", "3")
+        );
+        Assertions.assertEquals(
+                "https://api.com/products?cursor=a%2Bb%3D",
+                Paginator.withQueryParameter("https://api.com/products", "cursor", "a+b=")
+        );
+    }
+
+    @Test
+    @DisplayName("When reading a nested field every level must be an object")
+    void testField() {
+        JsonElement body = JsonParser.parseString("{\"meta\":{\"next\":\"abc\"},\"items\":[]}");
+
+        Assertions.assertEquals("abc", Paginator.field(body, "meta.next").getAsString());
+        Assertions.assertNull(Paginator.field(body, "items.next"));
+        Assertions.assertNull(Paginator.field(body, "missing.next"));
+    }
+
+    @Test
+    @DisplayName("When paginating by cursor the cursor of each page is sent until it is missing")
+    void testCursor() throws IOException, BuilderException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+
+        server.createContext("/products", exchange -> {
+            String query = exchange.getRequestURI().getQuery();
+            String body = query == null
+                    ? "{\"items\":[{\"name\":\"salad\"},{\"name\":\"soup\"}],\"meta\":{\"next\":\"c2\"}}"
+                    : "{\"items\":[{\"name\":\"" + query + "\"}],\"meta\":{\"next\":null}}";
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+
+            exchange.sendResponseHeaders(200, bytes.length);
+
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(bytes);
+            }
+        });
+        server.start();
+
+        try {
+            Paginator<Product> paginator = new Paginator.Builder<>(
+                    "http://localhost:" + server.getAddress().getPort() + "/products",
+                    Product[].class
+            ).byCursor("meta.next", "cursor").withItemsField("items").build();
+
+            try (Stream<Product> products = paginator.stream()) {
+                List<String> names = products.map(product -> product.name).collect(Collectors.toList());
+
+                Assertions.assertEquals(Arrays.asList("salad", "soup", "cursor=c2"), names);
+            }
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("When the connection is dropped the error is reported with its cause")
+    void testDroppedConnection() throws IOException, BuilderException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+
+        server.createContext("/products", HttpExchange::close);
+        server.start();
+
+        try {
+            Paginator<Product> paginator = new Paginator.Builder<>(
+                    "http://localhost:" + server.getAddress().getPort() + "/products",
+                    Product[].class
+            ).build();
+
+            try (Stream<Product> products = paginator.stream()) {
+                PaginationException error = Assertions.assertThrows(PaginationException.class, products::count);
+
+                Assertions.assertTrue(error.getCause() instanceof IOException, () -> "The cause should be the I/O error");
+            }
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("When paginating by page the page number is incremented until an empty page")
+    void testByPage() throws IOException, BuilderException {
+        List<String> queries = Collections.synchronizedList(new ArrayList<>());
+        HttpServer server = pagedServer(queries);
+
+        try {
+            Paginator<Product> paginator = new Paginator.Builder<>(url(server), Product[].class)
+                    .byPage("page", 1)
+                    .build();
+
+            try (Stream<Product> products = paginator.stream()) {
+                List<String> names = products.map(product -> product.name).collect(Collectors.toList());
+
+                Assertions.assertEquals(Arrays.asList("0a", "0b", "1a", "1b", "2a", "2b"), names);
+            }
+
+            Assertions.assertEquals(Arrays.asList("page=1", "page=2", "page=3", "page=4"), queries);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("When paginating by offset the offset grows by the items received until an empty page")
+    void testByOffset() throws IOException, BuilderException {
+        List<String> queries = Collections.synchronizedList(new ArrayList<>());
+        HttpServer server = pagedServer(queries);
+
+        try {
+            Paginator<Product> paginator = new Paginator.Builder<>(url(server), Product[].class)
+                    .byOffset("offset")
+                    .build();
+
+            try (Stream<Product> products = paginator.stream()) {
+                Assertions.assertEquals(6, products.count());
+            }
+
+            Assertions.assertEquals(Arrays.asList("offset=0", "offset=2", "offset=4", "offset=6"), queries);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("When consuming the first page only the configured number of pages are fetched ahead")
+    void testPrefetch() throws IOException, BuilderException, InterruptedException {
+        for (int prefetch = 1; prefetch <= 2; prefetch++) {
+            List<String> queries = Collections.synchronizedList(new ArrayList<>());
+            HttpServer server = pagedServer(queries);
+
+            try {
+                Paginator<Product> paginator = new Paginator.Builder<>(url(server), Product[].class)
+                        .byPage("page", 1)
+                        .withPrefetch(prefetch)
+                        .build();
+
+                try (Stream<Product> products = paginator.stream()) {
+                    Iterator<Product> iterator = products.iterator();
+
+                    Assertions.assertEquals("0a", iterator.next().name);
+
+                    Thread.sleep(300);
+
+                    Assertions.assertEquals(1 + prefetch, queries.size(), "Pages requested with prefetch " + prefetch);
+                }
+            } finally {
+                server.stop(0);
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.dnieln7.java.generic.request;
+
+import com.dnieln7.java.generic.request.exception.BuilderException;
+import com.dnieln7.java.generic.request.exception.ResponseException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Test class for {@link RangedDownload}
+ *
+ * @author dnieln7
+ */
+@DisplayName("When running RangedDownload")
+public class RangedDownloadTest {
+
+    private static final int SEGMENT_SIZE = 16 * 1024;
+    private static final byte[] RESOURCE = new byte[7 * SEGMENT_SIZE + 123];
+
+    static {
+        new Random(7).nextBytes(RESOURCE);
+    }
+
+    @TempDir
+    Path directory;
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private final List<String> requests = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicBoolean truncated = new AtomicBoolean();
+    private volatile boolean acceptRanges;
+    private volatile boolean ignoreRanges;
+    private volatile long headLength;
+    private volatile long truncateStart;
+    private volatile int errorCode;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        acceptRanges = true;
+        headLength = RESOURCE.length;
+        truncateStart = -1;
+        executor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/resource", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String range = exchange.getRequestHeaders().getFirst("Range");
+
+            if (exchange.getRequestMethod().equals("HEAD")) {
+                if (acceptRanges) {
+                    exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+                }
+
+                exchange.getResponseHeaders().set("Content-Length", String.valueOf(headLength));
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+
+            requests.add(String.valueOf(range));
+
+            if (errorCode != 0) {
+                exchange.sendResponseHeaders(errorCode, -1);
+                return;
+            }
+
+            if (range == null || ignoreRanges) {
+                exchange.sendResponseHeaders(200, RESOURCE.length);
+                exchange.getResponseBody().write(RESOURCE);
+                return;
+            }
+
+            String[] bounds = range.substring("bytes=".length()).split("-");
+            int start = Integer.parseInt(bounds[0]);
+            int end = Integer.parseInt(bounds[1]);
+            int length = end - start + 1;
+
+            exchange.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + end + "/" + RESOURCE.length);
+            exchange.sendResponseHeaders(206, length);
+
+            OutputStream output = exchange.getResponseBody();
+
+            if (start == truncateStart && truncated.compareAndSet(false, true)) {
+                output.write(RESOURCE, start, length / 2);
+                output.flush();
+                return;
+            }
+
+            output.write(RESOURCE, start, length);
+        }
+    }
+
+    private RangedDownload download(long segmentSize) throws BuilderException {
+        return new RangedDownload.Builder("http://localhost:" + server.getAddress().getPort() + "/resource")
+                .withSegmentSize(segmentSize)
+                .withParallelism(3)
+                .build();
+    }
+
+    private byte[] downloadToBuffer(RangedDownload download) throws ResponseException {
+        ByteBuffer buffer = download.download();
+
+        Assertions.assertNotNull(buffer, () -> "The download should not fail");
+
+        byte[] bytes = new byte[buffer.remaining()];
+
+        buffer.get(bytes);
+
+        return bytes;
+    }
+
+    private byte[] downloadToFile(RangedDownload download) throws ResponseException, IOException {
+        Path target = Files.write(directory.resolve("resource.bin"), new byte[RESOURCE.length * 2]);
+
+        Assertions.assertEquals(target, download.downloadTo(target));
+
+        return Files.readAllBytes(target);
+    }
+
+    private void reset() {
+        requests.clear();
+        truncated.set(false);
+    }
+
+    private long countRanges(long start) {
+        synchronized (requests) {
+            return requests.stream().filter(range -> range.startsWith("bytes=" + start + "-")).count();
+        }
+    }
+
+    @Test
+    @DisplayName("When ranges are supported every segment is fetched once and written at its position")
+    void testRanges() throws BuilderException, ResponseException, IOException {
+        RangedDownload download = download(SEGMENT_SIZE);
+
+        Assertions.assertArrayEquals(RESOURCE, downloadToBuffer(download));
+        Assertions.assertEquals(8, requests.size());
+        reset();
+
+        Assertions.assertArrayEquals(RESOURCE, downloadToFile(download));
+        Assertions.assertEquals(8, requests.size());
+    }
+
+    @Test
+    @DisplayName("When a segment is truncated only the missing bytes of that segment are fetched again")
+    void testResume() throws BuilderException, ResponseException, IOException {
+        RangedDownload download = download(SEGMENT_SIZE);
+        long start = 2 * SEGMENT_SIZE;
+
+        truncateStart = start;
+
+        for (int i = 0; i < 2; i++) {
+            byte[] bytes = i == 0 ? downloadToBuffer(download) : downloadToFile(download);
+
+            Assertions.assertArrayEquals(RESOURCE, bytes);
+            Assertions.assertEquals(9, requests.size());
+            Assertions.assertEquals(1, countRanges(start));
+            Assertions.assertEquals(1, countRanges(start + SEGMENT_SIZE / 2));
+
+            for (long other = 0; other < RESOURCE.length; other += SEGMENT_SIZE) {
+                if (other != start) {
+                    Assertions.assertEquals(1, countRanges(other), "The segment " + other + " should be fetched once");
+                }
+            }
+
+            reset();
+        }
+    }
+
+    @Test
+    @DisplayName("When a ranged request is answered with the whole resource it is downloaded with a single stream")
+    void testRangesIgnored() throws BuilderException, ResponseException, IOException {
+        RangedDownload download = download(SEGMENT_SIZE);
+
+        ignoreRanges = true;
+        headLength = RESOURCE.length + SEGMENT_SIZE;
+
+        Assertions.assertArrayEquals(RESOURCE, downloadToBuffer(download));
+        Assertions.assertTrue(requests.contains("null"), () -> "The resource should be requested without a range");
+        reset();
+
+        Assertions.assertArrayEquals(RESOURCE, downloadToFile(download));
+        Assertions.assertTrue(requests.contains("null"), () -> "The resource should be requested without a range");
+    }
+
+    @Test
+    @DisplayName("When the server does not accept ranges the resource is downloaded with a single stream")
+    void testWithoutAcceptRanges() throws BuilderException, ResponseException, IOException {
+        RangedDownload download = download(SEGMENT_SIZE);
+
+        acceptRanges = false;
+
+        Assertions.assertArrayEquals(RESOURCE, downloadToBuffer(download));
+        Assertions.assertEquals(Collections.singletonList("null"), requests);
+        reset();
+
+        Assertions.assertArrayEquals(RESOURCE, downloadToFile(download));
+        Assertions.assertEquals(Collections.singletonList("null"), requests);
+    }
+
+    @Test
+    @DisplayName("When a segment fails with a client error it is not retried")
+    void testClientError() throws BuilderException {
+        RangedDownload download = download(RESOURCE.length);
+
+        errorCode = 404;
+
+        ResponseException error = Assertions.assertThrows(ResponseException.class, download::download);
+
+        Assertions.assertEquals(404, error.getStatusCode());
+        Assertions.assertEquals(1, requests.size());
+        reset();
+
+        error = Assertions.assertThrows(
+                ResponseException.class,
+                () -> download.downloadTo(directory.resolve("resource.bin"))
+        );
+
+        Assertions.assertEquals(404, error.getStatusCode());
+        Assertions.assertEquals(1, requests.size());
+    }
+}
@@ -0,0 +1,331 @@
+package com.dnieln7.java.generic.request;
+
+import com.dnieln7.java.generic.request.utils.BufferPool;
+import com.dnieln7.java.generic.request.utils.PooledReader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test class for {@link ResponseStream}
+ *
+ * @author dnieln7
+ */
+@DisplayName("When running ResponseStream")
+public class ResponseStreamTest {
+
+    private static class Product {
+        private String name;
+    }
+
+    private static class FakeConnection extends HttpURLConnection {
+        private final String contentType;
+
+        private FakeConnection(String contentType) throws MalformedURLException {
+            super(new URL("http://localhost/products"));
+            this.contentType = contentType;
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public void connect() {
+        }
+
+        @Override
+        public void disconnect() {
+        }
+
+        @Override
+        public boolean usingProxy() {
+            return false;
+        }
+    }
+
+    /**
+     * Serves at most one line per read, so the number of reads is the number of lines taken by the reader.
+     */
+    private static class LineInputStream extends InputStream {
+        private final byte[] body;
+        private final AtomicInteger reads = new AtomicInteger();
+        private int position;
+
+        private LineInputStream(String body) {
+            this.body = body.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int read() {
+            byte[] single = new byte[1];
+
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public synchronized int read(byte[] bytes, int offset, int length) {
+            if (position >= body.length) {
+                return -1;
+            }
+
+            int end = position;
+
+            while (end < body.length && body[end] != '\n') {
+                end++;
+            }
+
+            int count = Math.min(length, Math.min(end + 1, body.length) - position);
+
+            System.arraycopy(body, position, bytes, offset, count);
+            position += count;
+            reads.incrementAndGet();
+
+            return count;
+        }
+    }
+
+    private static class RecordingSubscriber implements Flow.Subscriber<Product> {
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        private volatile Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Product item) {
+            events.add(item.name);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            events.add("error: " + throwable.getClass().getSimpleName());
+        }
+
+        @Override
+        public void onComplete() {
+            events.add("complete");
+        }
+
+        private String next() throws InterruptedException {
+            return events.poll(5, TimeUnit.SECONDS);
+        }
+
+        private String nextQuietly() throws InterruptedException {
+            return events.poll(200, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Blocks the first read until it is unblocked, then reports the end of the stream.
+     */
+    private static class BlockingInputStream extends InputStream {
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch unblocked = new CountDownLatch(1);
+
+        @Override
+        public int read() throws IOException {
+            return read(new byte[1], 0, 1);
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            entered.countDown();
+
+            try {
+                unblocked.await();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+
+            return -1;
+        }
+    }
+
+    private static final String PRODUCTS = "{\"name\":\"salad\"}\n{\"name\":\"soup\"}\n{\"name\":\"cake\"}\n";
+
+    private static ResponseStream<Product> stream(String contentType, String body) throws MalformedURLException {
+        return stream(contentType, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static ResponseStream<Product> stream(String contentType, InputStream body) throws MalformedURLException {
+        return new ResponseStream<>(new FakeConnection(contentType), new PooledReader(body), Product.class);
+    }
+
+    private static List<String> names(ResponseStream<Product> stream) {
+        List<String> names = new ArrayList<>();
+
+        stream.forEach(product -> names.add(product != null ? product.name : null));
+
+        return names;
+    }
+
+    @Test
+    @DisplayName("When the response is NDJSON every non blank line is a record")
+    void testNdjson() throws MalformedURLException {
+        ResponseStream<Product> stream = stream(
+                "application/x-ndjson",
+                "{\"name\":\"salad\"}\n\n{\"name\":\"soup\"}\r\n"
+        );
+
+        Assertions.assertEquals(Arrays.asList("salad", "soup"), names(stream));
+    }
+
+    @Test
+    @DisplayName("When the response is an event stream the data lines of each event are a record")
+    void testEventStream() throws MalformedURLException {
+        ResponseStream<Product> stream = stream(
+                "text/event-stream; charset=UTF-8",
+                ": comment\nevent: product\ndata: {\"name\":\ndata:\"salad\"}\n\nid: 2\ndata: {\"name\":\"soup\"}\n\n"
+        );
+
+        Assertions.assertEquals(Arrays.asList("salad", "soup"), names(stream));
+    }
+
+    @Test
+    @DisplayName("When a record is null the iterator keeps reading the next records")
+    void testNullRecord() throws MalformedURLException {
+        ResponseStream<Product> stream = stream(
+                "application/x-ndjson",
+                "{\"name\":\"salad\"}\nnull\n{\"name\":\"soup\"}\n"
+        );
+
+        Assertions.assertEquals(Arrays.asList("salad", null, "soup"), names(stream));
+    }
+
+    @Test
+    @DisplayName("When a record is null the subscriber receives an error instead of completing")
+    void testNullRecordPublisher() throws Exception {
+        ResponseStream<Product> stream = stream("application/x-ndjson", "{\"name\":\"salad\"}\nnull\n");
+        CompletableFuture<Throwable> result = new CompletableFuture<>();
+
+        stream.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(Product item) {
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                result.complete(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                result.complete(null);
+            }
+        });
+
+        Assertions.assertTrue(
+                result.get(5, TimeUnit.SECONDS) instanceof NullPointerException,
+                () -> "The subscriber should receive a NullPointerException"
+        );
+    }
+
+    @Test
+    @DisplayName("When the subscriber requests records only those records are read from the connection")
+    void testBackpressure() throws Exception {
+        LineInputStream body = new LineInputStream(PRODUCTS);
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        stream("application/x-ndjson", body).subscribe(subscriber);
+
+        Assertions.assertNull(subscriber.nextQuietly(), () -> "No record should be delivered before a request");
+        Assertions.assertEquals(0, body.reads.get());
+
+        subscriber.subscription.request(1);
+
+        Assertions.assertEquals("salad", subscriber.next());
+        Assertions.assertNull(subscriber.nextQuietly(), () -> "Only the requested record should be delivered");
+        Assertions.assertEquals(1, body.reads.get(), () -> "The reader should not run ahead of the demand");
+
+        subscriber.subscription.request(2);
+
+        Assertions.assertEquals("soup", subscriber.next());
+        Assertions.assertEquals("cake", subscriber.next());
+        Assertions.assertNull(subscriber.nextQuietly(), () -> "The end should not be read without demand");
+        Assertions.assertEquals(3, body.reads.get());
+
+        subscriber.subscription.request(1);
+
+        Assertions.assertEquals("complete", subscriber.next());
+    }
+
+    @Test
+    @DisplayName("When the subscription is cancelled no more records are delivered")
+    void testCancel() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        stream("application/x-ndjson", new LineInputStream(PRODUCTS)).subscribe(subscriber);
+        subscriber.subscription.request(1);
+
+        Assertions.assertEquals("salad", subscriber.next());
+
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(2);
+
+        Assertions.assertNull(subscriber.nextQuietly(), () -> "No signal should be delivered after cancel");
+    }
+
+    @Test
+    @DisplayName("When the subscriber requests zero records it receives an IllegalArgumentException")
+    void testInvalidRequest() throws Exception {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        stream("application/x-ndjson", PRODUCTS).subscribe(subscriber);
+        subscriber.subscription.request(0);
+
+        Assertions.assertEquals("error: IllegalArgumentException", subscriber.next());
+        Assertions.assertNull(subscriber.nextQuietly(), () -> "No signal should be delivered after the error");
+    }
+
+    @Test
+    @DisplayName("When another thread closes the stream the buffers are released by the reading thread")
+    void testCloseWhileReading() throws Exception {
+        BlockingInputStream body = new BlockingInputStream();
+        BufferPool pool = new BufferPool(BufferPool.DEFAULT_BUFFER_SIZE, 4);
+        ResponseStream<Product> stream = new ResponseStream<>(
+                new FakeConnection("application/x-ndjson"),
+                new PooledReader(body, pool),
+                Product.class
+        );
+        CompletableFuture<Boolean> hasNext = CompletableFuture.supplyAsync(() -> stream.iterator().hasNext());
+
+        Assertions.assertTrue(body.entered.await(5, TimeUnit.SECONDS));
+
+        stream.close();
+
+        Assertions.assertEquals(0, pool.getOccupancy(), () -> "The buffers should not be released while in use");
+
+        body.unblocked.countDown();
+
+        Assertions.assertFalse(hasNext.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(2, pool.getOccupancy(), () -> "The reading thread should release the buffers");
+    }
+}
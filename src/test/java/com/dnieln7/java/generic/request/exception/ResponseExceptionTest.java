@@ -0,0 +1,78 @@
+package com.dnieln7.java.generic.request.exception;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Test class for {@link ResponseException}
+ *
+ * @author dnieln7
+ */
+@DisplayName("When running ResponseException")
+public class ResponseExceptionTest {
+
+    private static ResponseException exception(String body) {
+        return new ResponseException(
+                "Failed",
+                400,
+                Map.of("Content-Type", Collections.singletonList("application/json")),
+                body.getBytes(StandardCharsets.UTF_8)
+        );
+    }
+
+    @Test
+    @DisplayName("When the error body is a JSON object it is parsed on the first call and reused")
+    void testLazyParsing() {
+        ResponseException exception = exception("{\"message\":\"Invalid name\"}");
+
+        Assertions.assertEquals("Invalid name", exception.getServerErrors().get("message").getAsString());
+        Assertions.assertSame(exception.getServerErrors(), exception.getServerErrors());
+    }
+
+    @Test
+    @DisplayName("When the error body is not a JSON object the server errors are null and the body is kept")
+    void testInvalidBody() {
+        Assertions.assertNull(exception("<html>Bad gateway</html>").getServerErrors());
+        Assertions.assertNull(exception("[1, 2]").getServerErrors());
+        Assertions.assertNull(exception("{\"message\":\"trunc").getServerErrors());
+        Assertions.assertNull(exception("").getServerErrors());
+        Assertions.assertEquals("<html>Bad gateway</html>", exception("<html>Bad gateway</html>").getErrorBodyAsString());
+    }
+
+    @Test
+    @DisplayName("When the error body is modified through the getter the exception keeps the original")
+    void testErrorBodyCopy() {
+        ResponseException exception = exception("{}");
+
+        exception.getErrorBody()[0] = 'x';
+
+        Assertions.assertEquals("{}", exception.getErrorBodyAsString());
+    }
+
+    @Test
+    @DisplayName("When the exception is deserialized the body is kept and the headers are empty")
+    void testSerialization() throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(exception("{\"message\":\"Invalid name\"}"));
+        }
+
+        ResponseException copy;
+
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (ResponseException) input.readObject();
+        }
+
+        Assertions.assertEquals(400, copy.getStatusCode());
+        Assertions.assertEquals(Collections.<String, List<String>>emptyMap(), copy.getHeaders());
+        Assertions.assertEquals("Invalid name", copy.getServerErrors().get("message").getAsString());
+    }
+}
@@ -0,0 +1,75 @@
+package com.dnieln7.java.generic.request.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Test class for {@link BufferPool}
+ *
+ * @author dnieln7
+ */
+@DisplayName("When running BufferPool")
+public class BufferPoolTest {
+
+    @Test
+    @DisplayName("When the pool is empty a buffer is allocated and counted as a miss")
+    void testMiss() {
+        BufferPool pool = new BufferPool(16, 2);
+        ByteBuffer buffer = pool.acquire();
+
+        Assertions.assertEquals(16, buffer.capacity());
+        Assertions.assertEquals(0, pool.getHits());
+        Assertions.assertEquals(1, pool.getMisses());
+    }
+
+    @Test
+    @DisplayName("When a buffer is released it is reused cleared and counted as a hit")
+    void testHit() {
+        BufferPool pool = new BufferPool(16, 2);
+        ByteBuffer buffer = pool.acquire();
+
+        buffer.put((byte) 1);
+        pool.release(buffer);
+
+        Assertions.assertEquals(1, pool.getOccupancy());
+
+        ByteBuffer reused = pool.acquire();
+
+        Assertions.assertSame(buffer, reused);
+        Assertions.assertEquals(0, reused.position());
+        Assertions.assertEquals(0, pool.getOccupancy());
+        Assertions.assertEquals(1, pool.getHits());
+        Assertions.assertEquals(1, pool.getMisses());
+    }
+
+    @Test
+    @DisplayName("When the pool is full the released buffers are discarded")
+    void testFull() {
+        BufferPool pool = new BufferPool(16, 2);
+        ByteBuffer first = pool.acquire();
+        ByteBuffer second = pool.acquire();
+        ByteBuffer third = pool.acquire();
+
+        pool.release(first);
+        pool.release(second);
+        pool.release(third);
+
+        Assertions.assertEquals(2, pool.getOccupancy());
+        Assertions.assertEquals(3, pool.getMisses());
+    }
+
+    @Test
+    @DisplayName("When a buffer has a different size or is direct it is not kept")
+    void testForeignBuffers() {
+        BufferPool pool = new BufferPool(16, 2);
+
+        pool.release(ByteBuffer.allocate(32));
+        pool.release(ByteBuffer.allocateDirect(16));
+        pool.release(null);
+
+        Assertions.assertEquals(0, pool.getOccupancy());
+    }
+}
@@ -0,0 +1,75 @@
+package com.dnieln7.java.generic.request.utils;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+/**
+ * Test class for {@link JsonProjection}
+ *
+ * @author dnieln7
+ */
+@DisplayName("When running JsonProjection")
+public class JsonProjectionTest {
+
+    private static final String PRODUCT = "{" +
+            "\"id\":7," +
+            "\"name\":\"salad\"," +
+            "\"seller\":{\"name\":\"dnieln7\",\"address\":{\"city\":\"CDMX\"}}," +
+            "\"reviews\":[{\"rating\":5,\"text\":\"good\"},{\"rating\":4,\"text\":\"ok\"}]" +
+            "}";
+
+    private static JsonElement read(String json, String... paths) throws IOException {
+        return new JsonProjection(paths).read(new JsonReader(new StringReader(json)));
+    }
+
+    @Test
+    @DisplayName("When reading nested paths only those values are kept")
+    void testNestedPaths() throws IOException {
+        Assertions.assertEquals(
+                JsonParser.parseString("{\"id\":7,\"seller\":{\"name\":\"dnieln7\"}}"),
+                read(PRODUCT, "id", "seller.name")
+        );
+    }
+
+    @Test
+    @DisplayName("When a path crosses an array it is applied to each element")
+    void testArrays() throws IOException {
+        Assertions.assertEquals(
+                JsonParser.parseString("{\"reviews\":[{\"rating\":5},{\"rating\":4}]}"),
+                read(PRODUCT, "reviews.rating")
+        );
+    }
+
+    @Test
+    @DisplayName("When a path ends on an object the whole object is kept")
+    void testLeafObject() throws IOException {
+        Assertions.assertEquals(
+                JsonParser.parseString("{\"seller\":{\"name\":\"dnieln7\",\"address\":{\"city\":\"CDMX\"}}}"),
+                read(PRODUCT, "seller")
+        );
+    }
+
+    @Test
+    @DisplayName("When a named path and a wildcard path share a level both are kept")
+    void testWildcardWithNamedPath() throws IOException {
+        Assertions.assertEquals(
+                JsonParser.parseString("{\"a\":{\"x\":1,\"y\":2},\"b\":{\"y\":4}}"),
+                read("{\"a\":{\"x\":1,\"y\":2,\"z\":3},\"b\":{\"x\":5,\"y\":4}}", "a.x", "*.y")
+        );
+    }
+
+    @Test
+    @DisplayName("When nothing matches the result is an empty object, or null for values that are not objects")
+    void testNoMatches() throws IOException {
+        Assertions.assertEquals(JsonParser.parseString("{}"), read(PRODUCT, "missing"));
+        Assertions.assertEquals(JsonNull.INSTANCE, read("\"text\"", "missing"));
+    }
+}
@@ -0,0 +1,148 @@
+package com.dnieln7.java.generic.request.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Test class for {@link PooledReader}
+ *
+ * @author dnieln7
+ */
+@DisplayName("When running PooledReader")
+public class PooledReaderTest {
+
+    private static final int BUFFER_SIZE = BufferPool.DEFAULT_BUFFER_SIZE;
+
+    private static String read(PooledReader reader) throws IOException {
+        StringWriter output = new StringWriter();
+
+        reader.transferTo(output);
+
+        return output.toString();
+    }
+
+    private static String readOneByOne(PooledReader reader) throws IOException {
+        StringBuilder output = new StringBuilder();
+        int c;
+
+        while ((c = reader.read()) != -1) {
+            output.append((char) c);
+        }
+
+        return output.toString();
+    }
+
+    private static InputStream input(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("When a multi-byte char is split across the buffer boundary it is decoded whole")
+    void testCharAcrossBoundary() throws IOException {
+        for (String character : new String[]{"\u00f1", "\u20ac", "\ud83d\ude00"}) {
+            for (int padding = 1; padding <= 3; padding++) {
+                String text = "a".repeat(BUFFER_SIZE - padding) + character + "b";
+
+                try (PooledReader reader = new PooledReader(input(text), new BufferPool(BUFFER_SIZE, 2))) {
+                    Assertions.assertEquals(text, read(reader));
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("When the stream returns one byte at a time the text is decoded whole")
+    void testSlowStream() throws IOException {
+        String text = "Ensalada \u00f1 \u20ac \ud83d\ude00";
+        InputStream slow = new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] bytes, int offset, int length) {
+                return super.read(bytes, offset, Math.min(length, 1));
+            }
+        };
+
+        try (PooledReader reader = new PooledReader(slow, new BufferPool(BUFFER_SIZE, 2))) {
+            Assertions.assertEquals(text, read(reader));
+        }
+    }
+
+    @Test
+    @DisplayName("When reading lines every terminator is removed, including a CRLF split across buffers")
+    void testReadLine() throws IOException {
+        String first = "a".repeat(BUFFER_SIZE / 2 - 1);
+        String text = first + "\r\nsecond\rthird\n\nlast";
+
+        try (PooledReader reader = new PooledReader(input(text), new BufferPool(BUFFER_SIZE, 2))) {
+            Assertions.assertEquals(first, reader.readLine());
+            Assertions.assertEquals("second", reader.readLine());
+            Assertions.assertEquals("third", reader.readLine());
+            Assertions.assertEquals("", reader.readLine());
+            Assertions.assertEquals("last", reader.readLine());
+            Assertions.assertNull(reader.readLine());
+        }
+    }
+
+    @Test
+    @DisplayName("When reading after a line the chars already decoded for lines are returned first")
+    void testReadAfterLine() throws IOException {
+        try (PooledReader reader = new PooledReader(input("first\r\nrest"), new BufferPool(BUFFER_SIZE, 2))) {
+            Assertions.assertEquals("first", reader.readLine());
+            Assertions.assertEquals("rest", read(reader));
+        }
+    }
+
+    @Test
+    @DisplayName("When the reader is released its buffers return to the pool and the stream stays open")
+    void testRelease() throws IOException {
+        BufferPool pool = new BufferPool(BUFFER_SIZE, 2);
+        PooledReader reader = new PooledReader(input("first\nsecond"), pool);
+
+        reader.readLine();
+        reader.release();
+
+        Assertions.assertEquals(2, pool.getOccupancy());
+        Assertions.assertThrows(IOException.class, reader::readLine);
+    }
+
+    @Test
+    @DisplayName("When reading one char at a time a surrogate pair is returned in two reads")
+    void testReadSingleChars() throws IOException {
+        String text = "x\ud83d\ude00y";
+
+        try (PooledReader reader = new PooledReader(input(text), new BufferPool(BUFFER_SIZE, 2))) {
+            Assertions.assertEquals('x', reader.read());
+            Assertions.assertEquals('\ud83d', reader.read());
+            Assertions.assertEquals('\ude00', reader.read());
+            Assertions.assertEquals('y', reader.read());
+            Assertions.assertEquals(-1, reader.read());
+        }
+    }
+
+    @Test
+    @DisplayName("When reading one char at a time the text after a surrogate pair is read whole")
+    void testReadSingleCharsLargeText() throws IOException {
+        String text = "x\ud83d\ude00" + "\u00f1".repeat(BUFFER_SIZE) + "\ud83d\ude00";
+
+        try (PooledReader reader = new PooledReader(input(text), new BufferPool(BUFFER_SIZE, 2))) {
+            Assertions.assertEquals(text, readOneByOne(reader));
+        }
+    }
+
+    @Test
+    @DisplayName("When reading a line after a single char read the pending low surrogate is kept")
+    void testReadLineAfterSingleChar() throws IOException {
+        try (PooledReader reader = new PooledReader(input("\ud83d\ude00a\nb"), new BufferPool(BUFFER_SIZE, 2))) {
+            Assertions.assertEquals('\ud83d', reader.read());
+            Assertions.assertEquals("\ude00a", reader.readLine());
+            Assertions.assertEquals("b", reader.readLine());
+            Assertions.assertNull(reader.readLine());
+        }
+    }
+}
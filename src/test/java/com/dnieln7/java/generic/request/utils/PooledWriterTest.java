@@ -0,0 +1,71 @@
+package com.dnieln7.java.generic.request.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Test class for {@link PooledWriter}
+ *
+ * @author dnieln7
+ */
+@DisplayName("When running PooledWriter")
+public class PooledWriterTest {
+
+    private static final int BUFFER_SIZE = BufferPool.DEFAULT_BUFFER_SIZE;
+
+    @Test
+    @DisplayName("When a surrogate pair is split across writes it is encoded as a single char")
+    void testSplitSurrogatePair() throws IOException {
+        String emoji = "\ud83d\ude00";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try (PooledWriter writer = new PooledWriter(output, new BufferPool(BUFFER_SIZE, 2))) {
+            writer.write("a" + emoji.charAt(0));
+            writer.write(new char[]{emoji.charAt(1), 'b'});
+        }
+
+        Assertions.assertArrayEquals(("a" + emoji + "b").getBytes(StandardCharsets.UTF_8), output.toByteArray());
+    }
+
+    @Test
+    @DisplayName("When the text is larger than the buffer it is written whole")
+    void testLargeText() throws IOException {
+        String text = "\u20ac".repeat(BUFFER_SIZE) + "\ud83d\ude00";
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try (PooledWriter writer = new PooledWriter(output, new BufferPool(BUFFER_SIZE, 2))) {
+            writer.write(text);
+        }
+
+        Assertions.assertEquals(text, output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("When a lone high surrogate is left at close it is replaced")
+    void testLoneSurrogate() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try (PooledWriter writer = new PooledWriter(output, new BufferPool(BUFFER_SIZE, 2))) {
+            writer.write("a\ud83d");
+        }
+
+        Assertions.assertEquals("a?", output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("When the writer is closed the buffer returns to the pool")
+    void testClose() throws IOException {
+        BufferPool pool = new BufferPool(BUFFER_SIZE, 2);
+        PooledWriter writer = new PooledWriter(new ByteArrayOutputStream(), pool);
+
+        writer.close();
+
+        Assertions.assertEquals(1, pool.getOccupancy());
+        Assertions.assertThrows(IOException.class, () -> writer.write("a"));
+    }
+}